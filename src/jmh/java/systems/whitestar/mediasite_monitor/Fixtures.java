@@ -0,0 +1,41 @@
+package systems.whitestar.mediasite_monitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Mediasite API responses used as benchmark inputs. Each fixture is one page of a collection, in the form the API sends
+ * it.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public final class Fixtures {
+    public static final String RECORDERS = "recorders.json";
+    public static final String SCHEDULES = "schedules.json";
+    public static final String RECURRENCES = "recurrences.json";
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param name {@link String} Fixture File Name
+     * @return {@link String} Fixture Contents
+     */
+    public static String load(final String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) throw new IllegalArgumentException("No fixture named " + name);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
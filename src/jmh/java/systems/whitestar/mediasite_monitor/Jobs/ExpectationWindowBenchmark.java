@@ -0,0 +1,49 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.whitestar.mediasite_monitor.Fixtures;
+import systems.whitestar.mediasite_monitor.Models.Schedule;
+
+import java.text.ParseException;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Filtering recurrences down to the ones expected to record today, as {@link ScheduleExpectationChecks} does for every
+ * recurrence of every schedule.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@State(Scope.Benchmark)
+public class ExpectationWindowBenchmark {
+    private Schedule.Recurrence[] recurrences;
+    private Date startOfDay;
+    private Date endOfDay;
+
+    @Setup
+    public void setup() {
+        recurrences = new Gson().fromJson(Fixtures.load(Fixtures.RECURRENCES), RecurrencePage.class).value;
+
+        // Half of the fixture's recurrences are next scheduled on this day
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2026, Calendar.OCTOBER, 19, 0, 0);
+        startOfDay = calendar.getTime();
+        calendar.set(Calendar.HOUR_OF_DAY, 23);
+        calendar.set(Calendar.MINUTE, 59);
+        endOfDay = calendar.getTime();
+    }
+
+    @Benchmark
+    public void filterToday(Blackhole blackhole) throws ParseException {
+        for (Schedule.Recurrence recurrence : recurrences)
+            blackhole.consume(ScheduleExpectationChecks.expectedBetween(recurrence, startOfDay, endOfDay));
+    }
+
+    private static class RecurrencePage {
+        Schedule.Recurrence[] value;
+    }
+}
@@ -0,0 +1,52 @@
+package systems.whitestar.mediasite_monitor.Models;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.whitestar.mediasite_monitor.Fixtures;
+
+/**
+ * Lookups done for every recorder in a fleet sweep: resolving the recorder's IP from its web service URL, and mapping
+ * the state it reports to a {@link Status}.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@State(Scope.Benchmark)
+public class ModelBenchmark {
+    private Recorder[] recorders;
+    private String[] stateStrings;
+    private int[] stateCodes;
+
+    @Setup
+    public void setup() {
+        recorders = new Gson().fromJson(Fixtures.load(Fixtures.RECORDERS), RecorderPage.class).value;
+
+        Status[] statuses = Status.values();
+        stateStrings = new String[statuses.length];
+        stateCodes = new int[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            stateStrings[i] = statuses[i].getStateString();
+            stateCodes[i] = statuses[i].getStateCode();
+        }
+    }
+
+    @Benchmark
+    public void statusGetByName(Blackhole blackhole) {
+        for (String stateString : stateStrings) blackhole.consume(Status.getByName(stateString));
+    }
+
+    @Benchmark
+    public void statusGetByCode(Blackhole blackhole) {
+        for (int stateCode : stateCodes) blackhole.consume(Status.getByCode(stateCode));
+    }
+
+    @Benchmark
+    public void recorderGetIP(Blackhole blackhole) {
+        for (Recorder recorder : recorders) blackhole.consume(recorder.getIP());
+    }
+
+    private static class RecorderPage {
+        Recorder[] value;
+    }
+}
@@ -0,0 +1,42 @@
+package systems.whitestar.mediasite_monitor;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import systems.whitestar.mediasite_monitor.Models.Recorder;
+import systems.whitestar.mediasite_monitor.Models.Schedule;
+
+/**
+ * Decoding of OData collection pages, as done for every page the agent retrieves from the Mediasite API.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@State(Scope.Benchmark)
+public class ODataDecodingBenchmark {
+    private String recorders;
+    private String schedules;
+    private String recurrences;
+
+    @Setup
+    public void setup() {
+        recorders = Fixtures.load(Fixtures.RECORDERS);
+        schedules = Fixtures.load(Fixtures.SCHEDULES);
+        recurrences = Fixtures.load(Fixtures.RECURRENCES);
+    }
+
+    @Benchmark
+    public Recorder[] decodeRecorderPage() {
+        // Mediasite creates a new Gson for each page
+        return new Gson().fromJson(recorders, Mediasite.RecorderResponse.class).value;
+    }
+
+    @Benchmark
+    public Schedule[] decodeSchedulePage() {
+        return new Gson().fromJson(schedules, Mediasite.ScheduleResponse.class).value;
+    }
+
+    @Benchmark
+    public Schedule.Recurrence[] decodeRecurrencePage() {
+        return new Gson().fromJson(recurrences, Mediasite.RecurrenceResponse.class).value;
+    }
+}
@@ -0,0 +1,103 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import org.openjdk.jmh.annotations.*;
+import systems.whitestar.mediasite_monitor.Fixtures;
+import systems.whitestar.mediasite_monitor.Jobs.StreamingJobInterface;
+import systems.whitestar.mediasite_monitor.Models.ClassTypeAdapter;
+import systems.whitestar.mediasite_monitor.Models.Recorder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serialization of a job result before it is sent to the server, both as a whole (as {@link Heartbeat} sends regular
+ * results) and streamed (as it sends {@link StreamingJobInterface} results). The result is a recorder list, the
+ * largest result the agent sends.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@State(Scope.Benchmark)
+public class ResultSerializationBenchmark {
+    // Configured the same as the Heartbeat's
+    private static Gson gson = new GsonBuilder().registerTypeAdapter(Class.class, new ClassTypeAdapter()).create();
+
+    private Recorder[] recorders;
+    private Map<String, String> result;
+
+    @Setup
+    public void setup() {
+        recorders = new Gson().fromJson(Fixtures.load(Fixtures.RECORDERS), RecorderPage.class).value;
+
+        result = new HashMap<>();
+        result.put("tenant", "default");
+        result.put("unchanged", "false");
+        result.put("recorders", new Gson().toJson(recorders));
+    }
+
+    @Benchmark
+    public String serializeResult() {
+        return gson.toJson(result);
+    }
+
+    @Benchmark
+    public long streamResult() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        Map<String, String> payload = new HashMap<>();
+        payload.put("tenant", "default");
+        new StreamingResultEntity(new FixtureJob(recorders), payload).writeTo(out);
+        return out.count;
+    }
+
+    private static class RecorderPage {
+        Recorder[] value;
+    }
+
+    /**
+     * Streams the fixture's recorders, the same way SyncRecorderDB streams the recorders it reads from the API
+     */
+    private static class FixtureJob implements StreamingJobInterface {
+        private final Recorder[] recorders;
+
+        FixtureJob(Recorder[] recorders) {
+            this.recorders = recorders;
+        }
+
+        @Override
+        public String getStreamedField() {
+            return "recorders";
+        }
+
+        @Override
+        public void stream(Map<String, String> payload, JsonWriter writer) throws IOException {
+            writer.beginArray();
+            for (Recorder recorder : recorders) gson.toJson(recorder, Recorder.class, writer);
+            writer.endArray();
+            payload.put("unchanged", "false");
+        }
+
+        @Override
+        public Map<String, String> execute(Map<String, String> payload) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import java.util.*;
+
+/**
+ * Generated recorders and schedules for the simulators to serve. The same settings and seed always generate the same
+ * fleet.
+ * <p>
+ * Recorders that are online get their own loopback address (127.x.y.z), so thousands of them can be served by one
+ * listener; offline recorders get an address in TEST-NET-1 (192.0.2.0/24), which is never routed.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class Fleet {
+    final List<Recorder> recorders = new ArrayList<>();
+    final Map<String, Recorder> recordersById = new HashMap<>();
+    final List<Schedule> schedules = new ArrayList<>();
+    final Map<String, Schedule> schedulesById = new HashMap<>();
+
+    Fleet(final LoadTestConfig config) {
+        final Random random = new Random(config.seed);
+        final Calendar today = Calendar.getInstance();
+
+        for (int i = 0; i < config.recorders; i++) {
+            String ip = random.nextDouble() < config.recorderOfflineRate ?
+                    String.format("192.0.2.%d", i % 254 + 1) :
+                    String.format("127.%d.%d.%d", 1 + i / (254 * 254), i / 254 % 254 + 1, i % 254 + 1);
+            Recorder recorder = new Recorder(id(random), String.format("Load Test Recorder %04d", i), ip);
+            recorders.add(recorder);
+            recordersById.put(recorder.id, recorder);
+
+            Schedule schedule = new Schedule(id(random), String.format("LOAD %04d - Simulated Course", i), recorder);
+            for (int r = 0; r < config.recurrencesPerSchedule; r++) {
+                Calendar next = (Calendar) today.clone();
+                next.add(Calendar.DAY_OF_MONTH, r);
+                next.set(Calendar.HOUR_OF_DAY, 8 + random.nextInt(12));
+                next.set(Calendar.MINUTE, random.nextInt(6) * 10);
+                schedule.recurrences.add(new Recurrence(r + 1, schedule.id, next.getTime()));
+            }
+            schedules.add(schedule);
+            schedulesById.put(schedule.id, schedule);
+        }
+    }
+
+    private static String id(final Random random) {
+        return String.format("%016x%016x", random.nextLong(), random.nextLong());
+    }
+
+    static class Recorder {
+        final String id;
+        final String name;
+        final String ip;
+
+        Recorder(String id, String name, String ip) {
+            this.id = id;
+            this.name = name;
+            this.ip = ip;
+        }
+    }
+
+    static class Schedule {
+        final String id;
+        final String name;
+        final Recorder recorder;
+        final List<Recurrence> recurrences = new ArrayList<>();
+
+        Schedule(String id, String name, Recorder recorder) {
+            this.id = id;
+            this.name = name;
+            this.recorder = recorder;
+        }
+    }
+
+    static class Recurrence {
+        final int id;
+        final String scheduleId;
+        final Date next;
+
+        Recurrence(int id, String scheduleId, Date next) {
+            this.id = id;
+            this.scheduleId = scheduleId;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Latency samples for one kind of job, summarised as percentiles
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class LatencyStats {
+    private final List<Long> samples = new ArrayList<>(); // Milliseconds
+    private int timeouts = 0;
+
+    synchronized void add(final long millis, final boolean timedOut) {
+        samples.add(millis);
+        if (timedOut) timeouts++;
+    }
+
+    synchronized int count() {
+        return samples.size();
+    }
+
+    /**
+     * @param percentile Percentile, 0 - 100
+     * @return Latency in milliseconds at the percentile, nearest-rank
+     */
+    synchronized long percentile(final double percentile) {
+        if (samples.isEmpty()) return 0;
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%6d %8d %8d %8d %8d %8d", count(), timeouts,
+                percentile(50), percentile(90), percentile(99), percentile(100));
+    }
+}
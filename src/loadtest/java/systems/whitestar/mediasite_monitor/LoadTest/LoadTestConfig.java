@@ -0,0 +1,81 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load Test Settings, read from "loadtest.*" system properties, e.g. -Dloadtest.recorders=5000
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class LoadTestConfig {
+    // Simulated Fleet
+    final int recorders = getInt("recorders", 2000);
+    final int recurrencesPerSchedule = getInt("recurrencesPerSchedule", 3);
+    final int pageSize = getInt("pageSize", 100);                     // OData page size
+
+    // Simulated Mediasite API
+    final int apiPort = getInt("apiPort", 18080);
+    final int apiLatency = getInt("apiLatency", 20);                  // Milliseconds
+
+    // Simulated Recorders - all listen on RECORDER_PORT, on their own loopback address
+    final int recorderLatency = getInt("recorderLatency", 50);        // Milliseconds
+    final int recorderJitter = getInt("recorderJitter", 50);          // Milliseconds, added at random
+    final double recorderTimeoutRate = getDouble("recorderTimeoutRate", 0.01);  // Accept, but never answer
+    final double recorderFailureRate = getDouble("recorderFailureRate", 0.02);  // Answer with HTTP 500
+    final double recorderOfflineRate = getDouble("recorderOfflineRate", 0.05);  // Unroutable address
+
+    // Recorded Traffic - when replaying, the agent plays back a capture instead of using the simulators
+    final String capture = System.getProperty("loadtest.capture", "");    // File to record the agent's traffic to
+    final String replay = System.getProperty("loadtest.replay", "");      // Capture to play back
+    final String replayURL = System.getProperty("loadtest.replayURL", ""); // Mediasite URL the capture was made with
+    final double replaySpeed = getDouble("replaySpeed", 1);           // 0 to play back without delays
+
+    // Stub Monitoring Server and Workload
+    final int serverPort = getInt("serverPort", 18090);
+    final int jobs = getInt("jobs", 200);
+    final double jobRate = getDouble("jobRate", 5);                   // Jobs queued per second
+    final Map<String, Integer> jobMix = getMix("jobMix", isReplay() ?
+            "SyncFleetStatus=30,SyncRecorderDB=40,ScheduleExpectationChecks=30" : // Recorder IDs are not known
+            "SyncRecorderStatus=70,SyncFleetStatus=5,SyncRecorderDB=10,ScheduleExpectationChecks=5,RecorderStatusHistory=10");
+    final int timeout = getInt("timeout", 900);                       // Seconds to wait for all results
+    final long seed = getInt("seed", 42);
+
+    static final int RECORDER_PORT = 8090; // Fixed by the agent
+
+    boolean isReplay() {
+        return !replay.isEmpty();
+    }
+
+    private static int getInt(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("loadtest." + name, Integer.toString(defaultValue)));
+    }
+
+    private static double getDouble(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty("loadtest." + name, Double.toString(defaultValue)));
+    }
+
+    /**
+     * @return {@link Map} Relative weight of each job type, by Job Class Simple Name
+     */
+    private static Map<String, Integer> getMix(String name, String defaultValue) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : System.getProperty("loadtest." + name, defaultValue).split(",")) {
+            String[] parts = entry.trim().split("=");
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+
+    @Override
+    public String toString() {
+        if (isReplay())
+            return String.format("replaying %s at %sx speed, %d jobs at %.1f/s, mix %s",
+                    replay, replaySpeed > 0 ? replaySpeed : "unlimited", jobs, jobRate, jobMix);
+        return String.format("%d recorders (%.0f%% offline, %.0f%% failing, %.0f%% hanging, %d+%d ms), " +
+                        "%d jobs at %.1f/s, mix %s",
+                recorders, recorderOfflineRate * 100, recorderFailureRate * 100, recorderTimeoutRate * 100,
+                recorderLatency, recorderJitter, jobs, jobRate, jobMix);
+    }
+}
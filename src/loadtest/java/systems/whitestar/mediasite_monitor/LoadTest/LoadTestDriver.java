@@ -0,0 +1,170 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the agent, as its own process, against a simulated Mediasite server, recorder fleet and monitoring server, and
+ * reports the agent's job throughput and latency.
+ * <p>
+ * Settings are read from "loadtest.*" system properties; see {@link LoadTestConfig}. Run with
+ * ./gradlew loadTest -Dloadtest.recorders=5000 -Dloadtest.jobs=500
+ * <p>
+ * With -Dloadtest.replay=capture.jsonl.gz -Dloadtest.replayURL=https://mediasite.example.edu/Mediasite, the agent plays
+ * back traffic recorded from a real Mediasite server (see MS_MON_CAPTURE_FILE) instead, so builds can be compared on
+ * real schedules without access to the server.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class LoadTestDriver {
+    private static final String AGENT_CLASS = "systems.whitestar.mediasite_monitor.Agent";
+    private static final String AGENT_LOG = "loadtest-agent.log";
+    private static final int AGENT_START_TIMEOUT = 120; // Seconds
+
+    public static void main(String[] args) throws Exception {
+        final LoadTestConfig config = new LoadTestConfig();
+        System.out.println("Load Test - " + config);
+
+        final Fleet fleet = new Fleet(config);
+        final MediasiteSimulator mediasite = config.isReplay() ? null : new MediasiteSimulator(fleet, config);
+        final RecorderSimulator recorders = config.isReplay() ? null : new RecorderSimulator(config);
+        final ServerStub server = new ServerStub(config, config.isReplay() ? config.replayURL : mediasite.getURL());
+        if (mediasite != null) mediasite.start();
+        if (recorders != null) recorders.start();
+        server.start();
+
+        Process agent = null;
+        try {
+            agent = startAgent(config, server.getURL());
+            if (!server.awaitAgent(AGENT_START_TIMEOUT, TimeUnit.SECONDS))
+                throw new IllegalStateException("Agent did not start - see " + AGENT_LOG);
+            System.out.println("Agent started, queueing jobs");
+
+            run(config, fleet, server);
+        } finally {
+            if (agent != null) agent.destroy();
+            server.stop();
+            if (recorders != null) recorders.stop();
+            if (mediasite != null) mediasite.stop();
+        }
+
+        if (mediasite != null) {
+            System.out.println();
+            System.out.println("Mediasite API requests:  " + mediasite.getRequestCounts());
+            System.out.println("Recorder requests:       " + recorders.getRequestCounts());
+        }
+        System.exit(0);
+    }
+
+    private static Process startAgent(final LoadTestConfig config, final String serverURL) throws IOException {
+        final File stateDirectory = Files.createTempDirectory("ms-mon-loadtest").toFile();
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), AGENT_CLASS);
+        builder.environment().put("MS_MON_SERVER_URL", serverURL);
+        builder.environment().put("MS_MON_AGENT_NAME", "load-test");
+        builder.environment().put("MS_MON_STATE_DIR", stateDirectory.getAbsolutePath());
+        if (config.isReplay()) {
+            builder.environment().put("MS_MON_REPLAY_FILE", new File(config.replay).getAbsolutePath());
+            builder.environment().put("MS_MON_REPLAY_SPEED", Double.toString(config.replaySpeed));
+        } else if (!config.capture.isEmpty()) {
+            builder.environment().put("MS_MON_CAPTURE_FILE", new File(config.capture).getAbsolutePath());
+        }
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(new File(AGENT_LOG));
+
+        System.out.println(String.format("Starting agent (log: %s, state: %s)", AGENT_LOG, stateDirectory));
+        return builder.start();
+    }
+
+    private static void run(final LoadTestConfig config, final Fleet fleet, final ServerStub server)
+            throws InterruptedException {
+        final Random random = new Random(config.seed);
+        final Map<String, LatencyStats> endToEnd = new TreeMap<>();
+        final Map<String, LatencyStats> execution = new TreeMap<>();
+        final LatencyStats allEndToEnd = new LatencyStats();
+        final LatencyStats allExecution = new LatencyStats();
+
+        // Queue jobs at the configured rate in the background
+        final long start = System.nanoTime();
+        Thread producer = new Thread(() -> {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / config.jobRate);
+            for (int i = 0; i < config.jobs; i++) {
+                String jobClass = pickJob(config.jobMix, random);
+                server.enqueue(jobClass, payload(jobClass, fleet, random));
+
+                long wait = start + (i + 1) * interval - System.nanoTime();
+                if (wait > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }, "LoadTestProducer");
+        producer.setDaemon(true);
+        producer.start();
+
+        final long deadline = start + TimeUnit.SECONDS.toNanos(config.timeout);
+        long lastCompletion = start;
+        int completed = 0;
+        while (completed < config.jobs && System.nanoTime() < deadline) {
+            ServerStub.QueuedJob job = server.awaitResult(1, TimeUnit.SECONDS);
+            if (job == null) continue;
+
+            completed++;
+            lastCompletion = job.completed;
+            long queuedToResult = TimeUnit.NANOSECONDS.toMillis(job.completed - job.queued);
+            long dispatchedToResult = TimeUnit.NANOSECONDS.toMillis(job.completed - job.dispatched);
+
+            endToEnd.computeIfAbsent(job.jobClass, k -> new LatencyStats()).add(queuedToResult, job.timedOut);
+            execution.computeIfAbsent(job.jobClass, k -> new LatencyStats()).add(dispatchedToResult, job.timedOut);
+            allEndToEnd.add(queuedToResult, job.timedOut);
+            allExecution.add(dispatchedToResult, job.timedOut);
+
+            if (completed % 50 == 0) System.out.println(String.format("%d / %d jobs complete", completed, config.jobs));
+        }
+        producer.interrupt();
+
+        final double elapsed = (lastCompletion - start) / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.println();
+        System.out.println(String.format("Completed %d of %d jobs in %.1f s - %.2f jobs/s",
+                completed, config.jobs, elapsed, elapsed > 0 ? completed / elapsed : 0));
+        report("Queued to result (ms)", endToEnd, allEndToEnd);
+        report("Picked up to result (ms)", execution, allExecution);
+    }
+
+    private static void report(final String title, final Map<String, LatencyStats> byJob, final LatencyStats all) {
+        System.out.println();
+        System.out.println(title);
+        System.out.println(String.format("%-28s %6s %8s %8s %8s %8s %8s", "Job", "Count", "Timeout", "p50", "p90",
+                "p99", "Max"));
+        for (Map.Entry<String, LatencyStats> stats : byJob.entrySet())
+            System.out.println(String.format("%-28s %s", stats.getKey(), stats.getValue()));
+        System.out.println(String.format("%-28s %s", "All", all));
+    }
+
+    private static String pickJob(final Map<String, Integer> mix, final Random random) {
+        int total = 0;
+        for (int weight : mix.values()) total += weight;
+
+        int pick = random.nextInt(total);
+        for (Map.Entry<String, Integer> job : mix.entrySet()) {
+            pick -= job.getValue();
+            if (pick < 0) return job.getKey();
+        }
+        throw new IllegalStateException("Empty job mix");
+    }
+
+    private static Map<String, String> payload(final String jobClass, final Fleet fleet, final Random random) {
+        Map<String, String> payload = new HashMap<>();
+        if (jobClass.equals("SyncRecorderStatus") || jobClass.equals("RecorderStatusHistory"))
+            payload.put("recorderID", fleet.recorders.get(random.nextInt(fleet.recorders.size())).id);
+        return payload;
+    }
+}
@@ -0,0 +1,211 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Simulated Mediasite API, serving the fleet's recorders, schedules and recurrences as paged OData collections. Pages
+ * carry an ETag, and a matching If-None-Match is answered with "304 Not Modified", as the fleet never changes.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class MediasiteSimulator {
+    static final String API_KEY = "load-test-api-key";
+    private static final String API_PATH = "/Mediasite/Api/v1/";
+    private static final Pattern RECORDER = Pattern.compile("Recorders\\('([^']+)'\\)");
+    private static final Pattern RECURRENCES = Pattern.compile("Schedules\\('([^']+)'\\)/Recurrences");
+    private static final Pattern RECURRENCE = Pattern.compile("Schedules\\('([^']+)'\\)/Recurrences\\((\\d+)\\)");
+    private static final int THREADS = 32;
+
+    private static Gson gson = new Gson();
+
+    private final Fleet fleet;
+    private final LoadTestConfig config;
+    private final String baseURL;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+
+    MediasiteSimulator(final Fleet fleet, final LoadTestConfig config) throws IOException {
+        this.fleet = fleet;
+        this.config = config;
+        this.baseURL = String.format("http://127.0.0.1:%d%s", config.apiPort, API_PATH);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.apiPort), 256);
+        this.server.createContext(API_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * @return {@link String} Mediasite URL for the agent's configuration
+     */
+    String getURL() {
+        return String.format("http://127.0.0.1:%d/Mediasite/", config.apiPort);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return {@link Map} Number of requests served, by kind of request and response
+     */
+    Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> count : requests.entrySet()) counts.put(count.getKey(), count.getValue().get());
+        return counts;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (config.apiLatency > 0) TimeUnit.MILLISECONDS.sleep(config.apiLatency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!API_KEY.equals(exchange.getRequestHeaders().getFirst("sfapikey"))) {
+            respond(exchange, "unauthorized", 401, null, null);
+            return;
+        }
+
+        final String path = exchange.getRequestURI().getPath().substring(API_PATH.length());
+        final int skip = getSkip(exchange.getRequestURI().getRawQuery());
+        Matcher matcher;
+
+        if (path.equals("Recorders")) {
+            page(exchange, "recorders", "Recorders", fleet.recorders, skip, this::recorder);
+        } else if (path.equals("Schedules")) {
+            page(exchange, "schedules", "Schedules", fleet.schedules, skip, this::schedule);
+        } else if ((matcher = RECORDER.matcher(path)).matches()) {
+            Fleet.Recorder recorder = fleet.recordersById.get(matcher.group(1));
+            if (recorder == null) respond(exchange, "recorder", 404, null, null);
+            else respond(exchange, "recorder", 200, gson.toJson(recorder(recorder)), null);
+        } else if ((matcher = RECURRENCES.matcher(path)).matches()) {
+            Fleet.Schedule schedule = fleet.schedulesById.get(matcher.group(1));
+            if (schedule == null) respond(exchange, "recurrences", 404, null, null);
+            else page(exchange, "recurrences", path, schedule.recurrences, skip, this::recurrence);
+        } else if ((matcher = RECURRENCE.matcher(path)).matches()) {
+            Fleet.Schedule schedule = fleet.schedulesById.get(matcher.group(1));
+            int id = Integer.parseInt(matcher.group(2));
+            if (schedule == null || id < 1 || id > schedule.recurrences.size())
+                respond(exchange, "recurrence", 404, null, null);
+            else respond(exchange, "recurrence", 200, gson.toJson(recurrence(schedule.recurrences.get(id - 1))), null);
+        } else {
+            respond(exchange, "unknown", 404, null, null);
+        }
+    }
+
+    private <T> void page(final HttpExchange exchange, final String kind, final String collection,
+                          final List<T> items, final int skip, final Function<T, Map<String, Object>> render)
+            throws IOException {
+        final String etag = String.format("W/\"%d-%d\"", config.seed, skip);
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            respond(exchange, kind + " (not modified)", 304, null, etag);
+            return;
+        }
+
+        final List<Map<String, Object>> value = new ArrayList<>();
+        for (int i = skip; i < Math.min(items.size(), skip + config.pageSize); i++) value.add(render.apply(items.get(i)));
+
+        final Map<String, Object> page = new LinkedHashMap<>();
+        page.put("odata.metadata", baseURL + "$metadata#" + collection);
+        if (skip + config.pageSize < items.size())
+            page.put("odata.nextLink", String.format("%s%s?$skip=%d", baseURL, collection, skip + config.pageSize));
+        page.put("value", value);
+
+        respond(exchange, kind, 200, gson.toJson(page), etag);
+    }
+
+    private Map<String, Object> recorder(final Fleet.Recorder recorder) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("odata.id", String.format("%sRecorders('%s')", baseURL, recorder.id));
+        json.put("Id", recorder.id);
+        json.put("Name", recorder.name);
+        json.put("Description", "Simulated Recorder");
+        json.put("SerialNumber", "LOAD-" + recorder.id.substring(0, 8));
+        json.put("Version", "7.2.0");
+        json.put("WebServiceUrl", String.format("http://%s:%d/recorderwebapi/v1/", recorder.ip,
+                LoadTestConfig.RECORDER_PORT));
+        json.put("LastVersionUpdateDate", "2026-08-01T00:00:00");
+        json.put("PhysicalAddress", "00:00:00:00:00:00");
+        json.put("ImageVersion", "LOAD-TEST");
+        return json;
+    }
+
+    private Map<String, Object> schedule(final Fleet.Schedule schedule) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("odata.id", String.format("%sSchedules('%s')", baseURL, schedule.id));
+        json.put("Recurrences@odata.navigationLinkUrl",
+                String.format("%sSchedules('%s')/Recurrences", baseURL, schedule.id));
+        json.put("Id", schedule.id);
+        json.put("Name", schedule.name);
+        json.put("RecorderId", schedule.recorder.id);
+        json.put("RecorderName", schedule.recorder.name);
+        json.put("RecorderWebServiceUrl", String.format("http://%s:%d/recorderwebapi/v1/", schedule.recorder.ip,
+                LoadTestConfig.RECORDER_PORT));
+        json.put("AutoStart", true);
+        json.put("AutoStop", true);
+        json.put("TimeZoneRegistryKey", "Pacific Standard Time");
+        return json;
+    }
+
+    private Map<String, Object> recurrence(final Fleet.Recurrence recurrence) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("odata.id", String.format("%sSchedules('%s')/Recurrences(%d)", baseURL, recurrence.scheduleId,
+                recurrence.id));
+        json.put("Id", recurrence.id);
+        json.put("MediasiteId", recurrence.scheduleId);
+        json.put("RecordDuration", 75 * 60 * 1000);
+        json.put("RecurrencePattern", "Weekly");
+        json.put("NextScheduleTime", new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss").format(recurrence.next));
+        return json;
+    }
+
+    private void respond(final HttpExchange exchange, final String kind, final int status, final String body,
+                         final String etag) throws IOException {
+        requests.computeIfAbsent(kind, k -> new AtomicLong()).incrementAndGet();
+
+        if (etag != null) exchange.getResponseHeaders().set("ETag", etag);
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private static int getSkip(final String query) {
+        if (query == null) return 0;
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("$skip=") || parameter.startsWith("%24skip="))
+                return Integer.parseInt(parameter.substring(parameter.indexOf('=') + 1));
+        }
+        return 0;
+    }
+}
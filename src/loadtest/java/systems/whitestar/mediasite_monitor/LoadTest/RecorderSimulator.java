@@ -0,0 +1,108 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulated recorder web services for the whole fleet. One listener on the recorder port answers for every recorder;
+ * the recorder is told apart by the loopback address the agent connected to. Responses are delayed without holding a
+ * thread, so thousands of slow recorders can be simulated at once.
+ * <p>
+ * The listener is bound to every interface, as that is the only way to receive connections for all of 127.0.0.0/8.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class RecorderSimulator {
+    private static final String STATE_PATH = "/recorderwebapi/v1/action/service/RecorderStateJson";
+    private static final String[] STATES = {"Idle", "Idle", "Idle", "Recording", "Busy", "Paused"};
+    private static final int HANG_TIME = 120; // Seconds a hanging recorder holds the connection before closing it
+
+    private final LoadTestConfig config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+    private final ScheduledExecutorService delays = Executors.newScheduledThreadPool(4);
+
+    private final AtomicLong answered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong hung = new AtomicLong();
+
+    RecorderSimulator(final LoadTestConfig config) throws IOException {
+        this.config = config;
+        this.server = HttpServer.create(new InetSocketAddress(LoadTestConfig.RECORDER_PORT), 4096);
+        this.server.createContext(STATE_PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        delays.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        counts.put("answered", answered.get());
+        counts.put("failed", failed.get());
+        counts.put("hung", hung.get());
+        return counts;
+    }
+
+    private void handle(final HttpExchange exchange) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final double roll = random.nextDouble();
+
+        if (roll < config.recorderTimeoutRate) {
+            hung.incrementAndGet();
+            delays.schedule(exchange::close, HANG_TIME, TimeUnit.SECONDS);
+            return;
+        }
+
+        final boolean fail = roll < config.recorderTimeoutRate + config.recorderFailureRate;
+        final String ip = exchange.getLocalAddress().getAddress().getHostAddress();
+        final long delay = config.recorderLatency + (config.recorderJitter > 0 ? random.nextInt(config.recorderJitter) : 0);
+
+        delays.schedule(() -> {
+            try {
+                if (fail) {
+                    failed.incrementAndGet();
+                    exchange.sendResponseHeaders(500, -1);
+                } else {
+                    answered.incrementAndGet();
+                    respond(exchange, ip);
+                }
+            } catch (IOException e) {
+                // The agent gave up on the request
+            } finally {
+                exchange.close();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private static void respond(final HttpExchange exchange, final String ip) throws IOException {
+        // Recorders wrap their JSON, which the agent strips
+        String state = STATES[Math.floorMod(ip.hashCode(), STATES.length)];
+        byte[] body = String.format("({\"RecorderState\":0,\"RecorderStateString\":\"%s\",\"SystemState\":0," +
+                "\"SystemStateString\":\"Normal\",\"RemoteAccessEnabled\":false})", state)
+                .getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
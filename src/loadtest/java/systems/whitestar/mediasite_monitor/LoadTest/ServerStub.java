@@ -0,0 +1,168 @@
+package systems.whitestar.mediasite_monitor.LoadTest;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Stub Monitoring Server. Authorizes any agent, hands it the simulated Mediasite's configuration, and serves jobs from
+ * its queue, recording when each job was queued, picked up, and when its result came back.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class ServerStub {
+    private static Gson gson = new Gson();
+
+    private final HttpServer server;
+    private final Map<String, Object> agentConfig = new LinkedHashMap<>();
+    private final BlockingQueue<QueuedJob> queue = new LinkedBlockingQueue<>();
+    private final Map<String, QueuedJob> jobs = new ConcurrentHashMap<>();
+    private final BlockingQueue<QueuedJob> completed = new LinkedBlockingQueue<>();
+    private final CountDownLatch polled = new CountDownLatch(1);
+
+    ServerStub(final LoadTestConfig config, final String mediasiteURL) throws IOException {
+        agentConfig.put("url", mediasiteURL);
+        agentConfig.put("apiKey", MediasiteSimulator.API_KEY);
+        agentConfig.put("apiUser", "load-test");
+        agentConfig.put("apiPass", "load-test");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.serverPort), 64);
+        server.createContext("/agent/", this::handle);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+    }
+
+    String getURL() {
+        return String.format("http://127.0.0.1:%d", server.getAddress().getPort());
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Add a job to the agent's queue
+     *
+     * @param jobClass {@link String} Job Class Simple Name
+     * @param payload  {@link Map} Job Payload
+     */
+    void enqueue(final String jobClass, final Map<String, String> payload) {
+        QueuedJob job = new QueuedJob(UUID.randomUUID().toString(), jobClass, payload);
+        jobs.put(job.id, job);
+        queue.add(job);
+    }
+
+    /**
+     * Wait for the agent to poll for jobs for the first time
+     *
+     * @return If the agent polled before the timeout
+     */
+    boolean awaitAgent(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return polled.await(timeout, unit);
+    }
+
+    /**
+     * Wait for the next job result
+     *
+     * @return {@link QueuedJob} Completed Job, or null if none completed before the timeout
+     */
+    QueuedJob awaitResult(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return completed.poll(timeout, unit);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final String method = exchange.getRequestMethod();
+        final String path = exchange.getRequestURI().getPath();
+        final String body = read(exchange.getRequestBody());
+
+        if (path.equals("/agent/register") || path.startsWith("/agent/register/status/")) {
+            Map<String, Object> agent = gson.fromJson(body.isEmpty() ? "{}" : body,
+                    new TypeToken<Map<String, Object>>() {}.getType());
+            if (agent == null) agent = new HashMap<>();
+            agent.put("authorized", true);
+            respond(exchange, 200, gson.toJson(agent));
+        } else if (path.equals("/agent/config")) {
+            respond(exchange, 200, gson.toJson(agentConfig));
+        } else if (path.equals("/agent/peers")) {
+            respond(exchange, 200, "[]");
+        } else if (path.equals("/agent/queue") && method.equals("GET")) {
+            polled.countDown();
+            QueuedJob job = queue.poll();
+            if (job == null) {
+                respond(exchange, 204, null);
+            } else {
+                job.dispatched = System.nanoTime();
+                Map<String, Object> agentJob = new LinkedHashMap<>();
+                agentJob.put("job", "systems.whitestar.mediasite_monitor.Jobs." + job.jobClass);
+                agentJob.put("payload", job.payload);
+                agentJob.put("id", job.id);
+                respond(exchange, 200, gson.toJson(agentJob));
+            }
+        } else if (path.startsWith("/agent/queue/job/") && method.equals("POST")) {
+            QueuedJob job = jobs.remove(path.substring("/agent/queue/job/".length()));
+            if (job != null) {
+                job.completed = System.nanoTime();
+                Map<String, String> result = gson.fromJson(body, new TypeToken<Map<String, String>>() {}.getType());
+                job.timedOut = result != null && "true".equals(result.get("timeout"));
+                job.resultSize = body.length();
+                completed.add(job);
+            }
+            respond(exchange, 202, null);
+        } else if (path.equals("/agent/status") && method.equals("POST")) {
+            respond(exchange, 202, null);
+        } else {
+            // Includes the job stream, so the agent polls
+            respond(exchange, 404, null);
+        }
+    }
+
+    private static String read(final InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    static class QueuedJob {
+        final String id;
+        final String jobClass;
+        final Map<String, String> payload;
+        final long queued = System.nanoTime();
+        volatile long dispatched;
+        volatile long completed;
+        volatile boolean timedOut;
+        volatile int resultSize;
+
+        QueuedJob(String id, String jobClass, Map<String, String> payload) {
+            this.id = id;
+            this.jobClass = jobClass;
+            this.payload = payload;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package systems.whitestar.mediasite_monitor;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.google.gson.annotations.Expose;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,18 +9,37 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.log4j.Log4j;
 import org.quartz.SchedulerException;
+import systems.whitestar.mediasite_monitor.Http.HttpTransport;
+import systems.whitestar.mediasite_monitor.Http.ReplayTransport;
+import systems.whitestar.mediasite_monitor.Http.TrafficCapture;
 import systems.whitestar.mediasite_monitor.Models.AgentConfig;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderDirectory;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderOwnership;
+import systems.whitestar.mediasite_monitor.Scheduler.ConfigReload;
 import systems.whitestar.mediasite_monitor.Scheduler.Heartbeat;
+import systems.whitestar.mediasite_monitor.Scheduler.JobRunner;
+import systems.whitestar.mediasite_monitor.Scheduler.JobStream;
+import systems.whitestar.mediasite_monitor.Scheduler.Outbox;
+import systems.whitestar.mediasite_monitor.Scheduler.ResultMemo;
 import systems.whitestar.mediasite_monitor.Scheduler.Schedule;
+import systems.whitestar.mediasite_monitor.Scheduler.StartLagMonitor;
+import systems.whitestar.mediasite_monitor.Scheduler.StatusMonitor;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Entry point for Agent Executable.
@@ -32,12 +53,20 @@ import java.util.concurrent.TimeUnit;
 @AllArgsConstructor
 @NoArgsConstructor
 public class Agent {
-    private static final String ID_FILE_PATH = "/var/lib/ms-mon-agent/config.properties";
+    private static final String DEFAULT_STATE_DIRECTORY = "/var/lib/ms-mon-agent";
+    private static final String ID_FILE_NAME = "config.properties";
+    private static final String CONFIG_CACHE_NAME = "agent-config.json";
     private static final int HEARTBEAT_RATE = 30;  // How often, in seconds, that the agent should check-in with the server
     private static final int EXECUTION_DELAY = 60; // How often the agent thread should check if there are still jobs running
+    private static final int WARM_UP_THREADS = 4;
+    private static final long UNAUTHORIZED_RELOAD_DELAY = TimeUnit.MINUTES.toMillis(1); // Between 401 triggered reloads
 
     @Getter
     private static Agent agent;
+    @Getter
+    private static String stateDirectory = DEFAULT_STATE_DIRECTORY; // Where the agent keeps its ID, config and outbox
+    private static volatile AgentConfig activeConfig;
+    private static final AtomicLong lastUnauthorizedReload = new AtomicLong();
     @Expose
     private String id;
     @Expose
@@ -45,10 +74,17 @@ public class Agent {
     @Expose(serialize = false)
     private boolean authorized;
     private String serverURL;
+    private boolean jobStream;
 
     public static void main(String[] args) {
         String serverURL = System.getenv("MS_MON_SERVER_URL");
         String agentName = System.getenv("MS_MON_AGENT_NAME");
+        boolean jobStream = Boolean.parseBoolean(System.getenv("MS_MON_JOB_STREAM"));
+        String stateDirectory = System.getenv("MS_MON_STATE_DIR");
+        if (stateDirectory != null && !stateDirectory.isEmpty()) Agent.stateDirectory = stateDirectory;
+        configureTraffic(System.getenv("MS_MON_CAPTURE_FILE"),
+                System.getenv("MS_MON_REPLAY_FILE"),
+                System.getenv("MS_MON_REPLAY_SPEED"));
         String agentID = getAgentID();
 
         if (agentID == null || agentID.isEmpty()) {
@@ -62,6 +98,7 @@ public class Agent {
                 .id(agentID)
                 .serverURL(serverURL)
                 .name(agentName)
+                .jobStream(jobStream)
                 .build();
 
         log.debug("Starting Agent");
@@ -89,11 +126,58 @@ public class Agent {
         }
     }
 
+    /**
+     * Record the agent's Mediasite traffic to a file, or play back a recording instead of calling Mediasite, so jobs can
+     * be timed against the same traffic from one build to the next.
+     *
+     * @param captureFile {@link String} File to record traffic to, or null
+     * @param replayFile  {@link String} Recorded traffic to play back, or null
+     * @param replaySpeed {@link String} How much faster than recorded to play back, 0 for no delay. Defaults to 1.
+     */
+    private static void configureTraffic(final String captureFile, final String replayFile, final String replaySpeed) {
+        if (replayFile != null && !replayFile.isEmpty()) {
+            double speed = 1;
+            if (replaySpeed != null && !replaySpeed.isEmpty()) {
+                try {
+                    speed = Double.parseDouble(replaySpeed);
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring invalid replay speed - " + replaySpeed);
+                }
+            }
+
+            final ReplayTransport replay;
+            try {
+                replay = ReplayTransport.load(new File(replayFile), speed);
+            } catch (IOException e) {
+                log.error("Could not load recorded traffic", e);
+                throw new RuntimeException(e);
+            }
+            Mediasite.setTransportFactory(connections -> replay);
+            Runtime.getRuntime().addShutdownHook(new Thread(replay::close, "Replay"));
+        } else if (captureFile != null && !captureFile.isEmpty()) {
+            final TrafficCapture capture;
+            try {
+                capture = new TrafficCapture(new File(captureFile));
+            } catch (IOException e) {
+                log.error("Could not start recording traffic", e);
+                throw new RuntimeException(e);
+            }
+            Mediasite.setTransportFactory(connections -> capture.wrap(new HttpTransport(connections)));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    capture.close();
+                } catch (IOException e) {
+                    log.warn("Could not finish recording traffic", e);
+                }
+            }, "Capture"));
+        }
+    }
+
     private static String getAgentID() {
         Properties properties = new Properties();
 
         try {
-            properties.load(new FileInputStream(ID_FILE_PATH));
+            properties.load(new FileInputStream(new File(stateDirectory, ID_FILE_NAME)));
         } catch (IOException e) {
             log.debug("Properties File not found", e);
             log.warn("Could not locate agent id file. A new Agent ID will be generated.");
@@ -108,17 +192,145 @@ public class Agent {
     }
 
     private static void saveAgentID(final String id) {
-        log.info("Saving Agent ID to " + ID_FILE_PATH);
+        log.info("Saving Agent ID to " + new File(stateDirectory, ID_FILE_NAME));
         Properties properties = new Properties();
         properties.setProperty("agent-id", id);
 
         try {
-            properties.store(new FileOutputStream(ID_FILE_PATH),
+            properties.store(new FileOutputStream(new File(stateDirectory, ID_FILE_NAME)),
                     "Mediasite Recorder Agent Configuration - Updated " +
                             ZonedDateTime.now().format(DateTimeFormatter.ISO_INSTANT));
         } catch (IOException e) {
             log.fatal("Cannot Save Agent ID to Disk - Agent will not stay authorized between restarts");
-            log.warn("File Path - " + ID_FILE_PATH);
+            log.warn("File Path - " + new File(stateDirectory, ID_FILE_NAME));
+        }
+    }
+
+    /**
+     * Load the configuration saved by the last run of the agent
+     *
+     * @return {@link AgentConfig} Cached Configuration, or null if there is not one
+     */
+    private static AgentConfig loadCachedConfig() {
+        final File file = new File(stateDirectory, CONFIG_CACHE_NAME);
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return new Gson().fromJson(reader, AgentConfig.class);
+        } catch (IOException | JsonParseException e) {
+            log.debug("Cached Agent Configuration not found", e);
+            return null;
+        }
+    }
+
+    /**
+     * Save the configuration so that the next run of the agent can start without waiting for the server. The file
+     * contains the Mediasite credentials, so it is written to a file that is only readable by the agent's user, which
+     * then replaces the previous file.
+     *
+     * @param config {@link AgentConfig} Authorized Configuration
+     */
+    private static void saveCachedConfig(final AgentConfig config) {
+        final Path directory = Paths.get(stateDirectory);
+        Path temp = null;
+
+        try {
+            try {
+                temp = Files.createTempFile(directory, CONFIG_CACHE_NAME, ".tmp",
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } catch (UnsupportedOperationException e) {
+                log.warn("Could not restrict permissions on cached Agent Configuration - it may be readable by " +
+                        "other users");
+                temp = Files.createTempFile(directory, CONFIG_CACHE_NAME, ".tmp");
+            }
+
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                new Gson().toJson(config, writer);
+            }
+            Files.move(temp, directory.resolve(CONFIG_CACHE_NAME), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Cannot Save Agent Configuration to Disk - next start will wait for the server", e);
+            //noinspection ResultOfMethodCallIgnored
+            if (temp != null) temp.toFile().delete();
+        }
+    }
+
+    /**
+     * Fetch the configuration from the server again, and apply it to the running agent without a restart. New Mediasite
+     * credentials are swapped into the live clients, which keep their connection pools and caches, and job settings
+     * take effect for the next job. Monitor intervals and request budgets are applied the next time the agent starts.
+     *
+     * @return If the configuration had changed
+     */
+    public static synchronized boolean reloadConfig() {
+        final AgentConfig config;
+        try {
+            config = Register.getConfig();
+        } catch (RuntimeException e) {
+            log.warn("Could not reload Agent Configuration - continuing with current configuration", e);
+            return false;
+        }
+
+        if (config == null || config.getUrl() == null) {
+            log.warn("Server returned an incomplete Agent Configuration - continuing with current configuration");
+            return false;
+        }
+        if (config.equals(activeConfig)) {
+            log.debug("Agent Configuration has not changed");
+            return false;
+        }
+
+        log.info(String.format("Agent Configuration has changed - %d Mediasite clients updated",
+                Mediasite.reload(config)));
+        applyConfig(config);
+        saveCachedConfig(config);
+        return true;
+    }
+
+    /**
+     * Reload the configuration in the background when the Mediasite API rejects the agent's credentials, in case they
+     * have been rotated. Reloads at most once a minute, however many requests are rejected.
+     *
+     * @param tenant {@link String} Tenant whose credentials were rejected
+     */
+    private static void onUnauthorized(final String tenant) {
+        final long now = System.currentTimeMillis();
+        final long last = lastUnauthorizedReload.get();
+        if (now - last < UNAUTHORIZED_RELOAD_DELAY || !lastUnauthorizedReload.compareAndSet(last, now)) return;
+
+        log.info(String.format("Reloading Agent Configuration - credentials for tenant \"%s\" were rejected", tenant));
+        Thread reload = new Thread(Agent::reloadConfig, "ConfigReload");
+        reload.setDaemon(true);
+        reload.start();
+    }
+
+    /**
+     * Apply the settings that can change while the agent is running
+     *
+     * @param config {@link AgentConfig} Agent Configuration
+     */
+    private static void applyConfig(final AgentConfig config) {
+        RecorderOwnership.getInstance().setEnabled(config.isShardRecorders());
+        ResultMemo.getInstance().setFreshness(config.getJobResultFreshness());
+        JobRunner.getInstance().setDeadlines(config.getJobDeadlines());
+        StartLagMonitor.reconfigure(config.getStartLagSampleInterval(), config.getStartLagWindowBefore(),
+                config.getStartLagWindowAfter());
+        activeConfig = config;
+    }
+
+    /**
+     * Block until the server has authorized the agent. Checks quickly at first, then backs off to the registration
+     * delay.
+     */
+    private static void waitForAuthorization() {
+        int delay = 1;
+        while (!Register.registerAgent()) {
+            try {
+                TimeUnit.SECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                log.warn("Could not pause for Agent Registration Status Refresh", e);
+            }
+            delay = Math.min(delay * 2, Register.REGISTRATION_DELAY);
         }
     }
 
@@ -127,23 +339,21 @@ public class Agent {
         log.debug("Agent ID = " + this.id);
         log.debug("Agent Name = " + this.name);
         log.debug("Server URL = " + this.serverURL);
+        log.debug("Job Stream = " + this.jobStream);
 
-        boolean authorized;
-        do {
-            authorized = Register.registerAgent();
-            if (!authorized) {
-                try {
-                    TimeUnit.SECONDS.sleep(Register.REGISTRATION_DELAY);
-                } catch (InterruptedException e) {
-                    log.warn("Could not pause for Agent Registration Status Refresh", e);
-                }
-            }
-        } while (!authorized);
+        AgentConfig config = loadCachedConfig();
+        final boolean fastStart = config != null;
 
+        if (fastStart) {
+            log.info("Fast Start - using cached Agent Configuration while registration is revalidated");
+        } else {
+            waitForAuthorization();
 
-        log.info("Getting Agent Configuration");
-        AgentConfig config = Register.getConfig();
-        if (config == null) throw new RuntimeException("Config cannot be null");
+            log.info("Getting Agent Configuration");
+            config = Register.getConfig();
+            if (config == null) throw new RuntimeException("Config cannot be null");
+            saveCachedConfig(config);
+        }
 
         try {
             Mediasite.init(config);
@@ -151,6 +361,12 @@ public class Agent {
             log.error("Could not init Mediasite API Connector", e);
             throw new RuntimeException(e);
         }
+        Mediasite.setUnauthorizedHandler(Agent::onUnauthorized);
+
+        applyConfig(config);
+
+        Outbox outbox = Outbox.getInstance();
+        if (outbox != null) outbox.start();
 
         try {
             Heartbeat.schedule(Schedule.getScheduler(), HEARTBEAT_RATE);
@@ -158,5 +374,80 @@ public class Agent {
             log.fatal("Could not schedule heartbeat job", e);
             throw new RuntimeException(e);
         }
+
+        if (config.getStatusMonitorInterval() > 0) {
+            log.info(String.format("Monitoring recorder status every %d seconds", config.getStatusMonitorInterval()));
+            try {
+                StatusMonitor.schedule(Schedule.getScheduler(), config.getStatusMonitorInterval(),
+                        config.getStatusMonitorDenseInterval(), config.getStatusMonitorDenseWindow());
+            } catch (SchedulerException e) {
+                log.error("Could not schedule status monitor job", e);
+            }
+        }
+
+        if (config.getStartLagSampleInterval() > 0) {
+            log.info(String.format("Measuring recording start lag every %d seconds around scheduled starts",
+                    config.getStartLagSampleInterval()));
+            try {
+                StartLagMonitor.schedule(Schedule.getScheduler(), config.getStartLagSampleInterval(),
+                        config.getStartLagWindowBefore(), config.getStartLagWindowAfter());
+            } catch (SchedulerException e) {
+                log.error("Could not schedule start lag monitor job", e);
+            }
+        }
+
+        if (config.getConfigReloadInterval() > 0) {
+            log.info(String.format("Reloading Agent Configuration every %d seconds", config.getConfigReloadInterval()));
+            try {
+                ConfigReload.schedule(Schedule.getScheduler(), config.getConfigReloadInterval());
+            } catch (SchedulerException e) {
+                log.error("Could not schedule config reload job", e);
+            }
+        }
+
+        if (jobStream) {
+            log.info("Opening Job Stream");
+            JobStream.start(Schedule.getScheduler(), serverURL, HEARTBEAT_RATE);
+        }
+
+        warmUp(fastStart);
+    }
+
+    /**
+     * Get the agent ready for work in the background: load each tenant's recorder directory, which also opens the
+     * connection pools to the Mediasite servers, and, after a fast start, revalidate the agent's registration and
+     * configuration with the server. These all run in parallel.
+     *
+     * @param fastStart If the agent was started with its cached configuration
+     */
+    private void warmUp(final boolean fastStart) {
+        final ExecutorService executor = Executors.newFixedThreadPool(WARM_UP_THREADS);
+
+        if (fastStart) executor.submit(this::revalidate);
+        for (Mediasite mediasite : Mediasite.getInstances()) {
+            executor.submit(() -> RecorderDirectory.getInstance(mediasite.getTenant()).refresh());
+        }
+
+        executor.shutdown();
+    }
+
+    /**
+     * Check that the agent is still authorized, and apply the server's configuration if it has changed since it was
+     * cached. Jobs are paused if the agent is no longer authorized, until it is authorized again.
+     */
+    private void revalidate() {
+        try {
+            if (!Register.registerAgent()) {
+                log.warn("Agent is no longer authorized - pausing jobs until it is");
+                Schedule.getScheduler().pauseAll();
+                waitForAuthorization();
+                log.info("Agent authorized - resuming jobs");
+                Schedule.getScheduler().resumeAll();
+            }
+
+            if (reloadConfig()) log.info("Applied Agent Configuration changes made since the last run");
+        } catch (SchedulerException | RuntimeException e) {
+            log.error("Problem revalidating Agent registration - continuing with cached configuration", e);
+        }
     }
 }
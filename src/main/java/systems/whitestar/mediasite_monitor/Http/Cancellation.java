@@ -0,0 +1,44 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets one thread abandon a request that another thread is making. Whoever makes the request registers how to abort
+ * it; cancelling runs that straight away, or as soon as it is registered if the request has not started yet.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class Cancellation {
+    private final List<Runnable> actions = new ArrayList<>();
+    private boolean cancelled = false;
+
+    /**
+     * @param action {@link Runnable} How to abort the request
+     */
+    public void onCancel(final Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    public void cancel() {
+        final List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            toRun = new ArrayList<>(actions);
+            actions.clear();
+        }
+        for (Runnable action : toRun) action.run();
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
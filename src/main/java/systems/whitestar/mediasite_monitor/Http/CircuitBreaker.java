@@ -0,0 +1,122 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.Getter;
+import lombok.Value;
+import lombok.extern.log4j.Log4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit Breaker for a single remote device. After repeated connection failures the breaker opens and requests fail
+ * fast instead of waiting on the connect timeout. Once the retry delay has passed the breaker goes half-open and lets a
+ * single probe request through: success closes the breaker, failure re-opens it with double the delay (up to a max).
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class CircuitBreaker {
+    @Getter
+    private final String name;
+    private final Policy policy;
+    private final Listener listener;
+
+    @Getter
+    private volatile State state = State.CLOSED;
+    @Getter
+    private int consecutiveFailures = 0;
+    private long retryDelay;
+    @Getter
+    private long retryAt = 0;
+    private long probeStarted = 0;
+
+    CircuitBreaker(String name, Policy policy, Listener listener) {
+        this.name = name;
+        this.policy = policy;
+        this.listener = listener;
+        this.retryDelay = policy.getRetryDelay();
+    }
+
+    /**
+     * Check if a request to the device should be attempted. Moves an open breaker to half-open once its retry delay has
+     * elapsed, in which case the caller is the probe and must report the outcome.
+     *
+     * @return If the request should be made
+     */
+    public synchronized boolean allowRequest() {
+        final long now = System.currentTimeMillis();
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now < retryAt) return false;
+                transition(State.HALF_OPEN);
+                probeStarted = now;
+                return true;
+            case HALF_OPEN:
+                // Only one probe at a time, unless the last probe never reported back
+                if (now - probeStarted < policy.getRetryDelay()) return false;
+                probeStarted = now;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * The device responded
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        retryDelay = policy.getRetryDelay();
+        if (state != State.CLOSED) transition(State.CLOSED);
+    }
+
+    /**
+     * The device could not be reached
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+
+        if (state == State.HALF_OPEN) {
+            retryDelay = Math.min(retryDelay * 2, policy.getMaxRetryDelay());
+            open();
+        } else if (state == State.CLOSED && consecutiveFailures >= policy.getFailureThreshold()) {
+            open();
+        }
+    }
+
+    private void open() {
+        retryAt = System.currentTimeMillis() + retryDelay;
+        transition(State.OPEN);
+        log.info(String.format("Circuit Breaker for %s open - next probe in %d seconds",
+                name, TimeUnit.MILLISECONDS.toSeconds(retryDelay)));
+    }
+
+    private void transition(State newState) {
+        State oldState = state;
+        state = newState;
+        if (oldState != newState && listener != null) listener.onStateChange(this, oldState, newState);
+    }
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * When breakers should open, and how long they stay open
+     */
+    @Value
+    public static class Policy {
+        int failureThreshold;   // Consecutive failures before the breaker opens
+        long retryDelay;        // Milliseconds before the first probe of an open breaker
+        long maxRetryDelay;     // Upper limit, in milliseconds, for the doubling retry delay
+    }
+
+    public interface Listener {
+        void onStateChange(CircuitBreaker breaker, State from, State to);
+    }
+}
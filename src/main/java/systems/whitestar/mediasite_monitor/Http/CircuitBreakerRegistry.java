@@ -0,0 +1,79 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.log4j.Log4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one {@link CircuitBreaker} per device, and a short log of their recent state changes for monitoring.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class CircuitBreakerRegistry implements CircuitBreaker.Listener {
+    private static final int TRANSITION_LOG_SIZE = 250;
+
+    private final CircuitBreaker.Policy policy;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final Deque<Transition> transitions = new ArrayDeque<>();
+
+    public CircuitBreakerRegistry(CircuitBreaker.Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Get the breaker for a device, creating a closed one if this is the first request to it.
+     *
+     * @param name {@link String} Device Identifier (IP Address)
+     * @return {@link CircuitBreaker} Breaker for the device
+     */
+    public CircuitBreaker get(final String name) {
+        return breakers.computeIfAbsent(name, n -> new CircuitBreaker(n, policy, this));
+    }
+
+    /**
+     * @return {@link Map} Current state of every known breaker, by device
+     */
+    public Map<String, CircuitBreaker.State> getStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        for (CircuitBreaker breaker : breakers.values()) states.put(breaker.getName(), breaker.getState());
+        return states;
+    }
+
+    /**
+     * @return {@link List} Most recent state changes, oldest first
+     */
+    public List<Transition> getTransitions() {
+        synchronized (transitions) {
+            return new ArrayList<>(transitions);
+        }
+    }
+
+    @Override
+    public void onStateChange(CircuitBreaker breaker, CircuitBreaker.State from, CircuitBreaker.State to) {
+        log.info(String.format("Circuit Breaker for %s changed from %s to %s", breaker.getName(), from, to));
+
+        synchronized (transitions) {
+            if (transitions.size() == TRANSITION_LOG_SIZE) transitions.removeFirst();
+            transitions.addLast(new Transition(breaker.getName(), from, to, System.currentTimeMillis()));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Transition {
+        private String name;
+        private CircuitBreaker.State from;
+        private CircuitBreaker.State to;
+        private long time;
+    }
+}
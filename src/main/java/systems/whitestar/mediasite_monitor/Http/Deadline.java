@@ -0,0 +1,97 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deadline for the work being done on the current thread. Set when a job starts, and checked by everything that waits
+ * on the network on its behalf, so that request timeouts never run past the time the job has left.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public final class Deadline {
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>(); // System.nanoTime() when the deadline passes
+
+    private Deadline() {
+    }
+
+    /**
+     * Set the deadline for the current thread
+     *
+     * @param timeout  Time until the deadline
+     * @param timeUnit {@link TimeUnit} Timeout Unit
+     */
+    public static void set(final long timeout, final TimeUnit timeUnit) {
+        DEADLINE.set(System.nanoTime() + timeUnit.toNanos(timeout));
+    }
+
+    /**
+     * Remove the current thread's deadline
+     */
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    /**
+     * @return Milliseconds until the current thread's deadline, or {@link Long#MAX_VALUE} if it does not have one
+     */
+    public static long remaining() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) return Long.MAX_VALUE;
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * @return If the current thread has a deadline, and it has passed
+     */
+    public static boolean isExpired() {
+        return remaining() <= 0;
+    }
+
+    /**
+     * Shorten a timeout so that it ends by the current thread's deadline
+     *
+     * @param timeout Timeout in milliseconds
+     * @return Timeout in milliseconds, no later than the deadline
+     * @throws ExceededException The deadline has already passed
+     */
+    public static long bound(final long timeout) throws ExceededException {
+        final long remaining = remaining();
+        if (remaining <= 0) throw new ExceededException();
+        return Math.min(timeout, remaining);
+    }
+
+    /**
+     * Carry the current thread's deadline over to a task that will run on another thread
+     *
+     * @param task {@link Callable} Task
+     * @param <T>  Task Result Type
+     * @return {@link Callable} Task that runs with the current thread's deadline
+     */
+    public static <T> Callable<T> wrap(final Callable<T> task) {
+        final Long deadline = DEADLINE.get();
+        if (deadline == null) return task;
+
+        return () -> {
+            DEADLINE.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                DEADLINE.remove();
+            }
+        };
+    }
+
+    /**
+     * The deadline passed before the work could be done
+     */
+    public static class ExceededException extends InterruptedIOException {
+        private static final long serialVersionUID = 1L;
+
+        public ExceededException() {
+            super("Job deadline exceeded");
+        }
+    }
+}
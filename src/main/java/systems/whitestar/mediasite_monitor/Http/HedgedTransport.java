@@ -0,0 +1,186 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.extern.log4j.Log4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuts the tail latency of GET requests by hedging: if a request has not been answered by the host's recent 95th
+ * percentile response time, the same request is sent again, and whichever answers first is used. The other is
+ * aborted. Only use it for requests that are safe to repeat.
+ * <p>
+ * Hedges are limited by a budget, a fraction of the requests made, so that a slow host does not get twice the load.
+ * Each hedge also needs a permit from the host's {@link RequestGovernor} that is available right away.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class HedgedTransport implements Transport {
+    private static final double HEDGE_PERCENTILE = 95;
+    private static final int LATENCY_WINDOW = 256;  // Recent responses the percentile is taken from
+    private static final int MIN_SAMPLES = 20;      // Responses needed before requests are hedged
+    private static final long MIN_HEDGE_DELAY = 20; // Milliseconds
+    private static final double MAX_BUDGET = 10;    // Hedges that can be saved up while the host is fast
+
+    private static final ExecutorService executor;
+
+    static {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Hedge-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final Transport delegate;
+    private final RequestGovernor governor;
+    private final double budgetRatio;
+    private final LatencyTracker latency = new LatencyTracker(LATENCY_WINDOW);
+
+    private double budget = 0;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    /**
+     * @param delegate    {@link Transport} Transport that makes the requests
+     * @param governor    {@link RequestGovernor} Request budget for the host, that hedges must also fit in. May be null.
+     * @param budgetRatio Fraction of requests that may be hedged, e.g. 0.05 for one in twenty
+     */
+    public HedgedTransport(final Transport delegate, final RequestGovernor governor, final double budgetRatio) {
+        this.delegate = delegate;
+        this.governor = governor;
+        this.budgetRatio = budgetRatio;
+    }
+
+    @Override
+    public Response get(final String url, final Map<String, String> headers) throws IOException {
+        requests.incrementAndGet();
+        depositBudget(budgetRatio);
+
+        if (latency.getCount() < MIN_SAMPLES) {
+            final long start = System.nanoTime();
+            Response response = delegate.get(url, headers);
+            latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        }
+
+        final CompletionService<Response> completion = new ExecutorCompletionService<>(executor);
+        final List<Attempt> attempts = new ArrayList<>(2);
+        try {
+            attempts.add(start(completion, url, headers, null));
+
+            final long hedgeDelay = Math.max(MIN_HEDGE_DELAY, latency.percentile(HEDGE_PERCENTILE));
+            Future<Response> done = completion.poll(Math.min(hedgeDelay, Math.max(0, Deadline.remaining())),
+                    TimeUnit.MILLISECONDS);
+            if (done == null && withdrawBudget()) {
+                RequestGovernor.Permit permit = governor != null ? governor.tryAcquire() : null;
+                if (governor == null || permit != null) {
+                    hedges.incrementAndGet();
+                    log.debug(String.format("No response after %d ms, hedging request - %s", hedgeDelay, url));
+                    attempts.add(start(completion, url, headers, permit));
+                } else {
+                    // The host is busy, so save the hedge for later
+                    depositBudget(1);
+                }
+            }
+
+            IOException failure = null;
+            for (int outstanding = attempts.size(); outstanding > 0; outstanding--) {
+                if (done == null) done = completion.poll(Math.max(0, Deadline.remaining()), TimeUnit.MILLISECONDS);
+                if (done == null) throw new Deadline.ExceededException();
+
+                try {
+                    Response response = done.get();
+                    if (attempts.size() > 1 && done == attempts.get(1).future) hedgeWins.incrementAndGet();
+                    return response;
+                } catch (ExecutionException e) {
+                    // Wait for the other attempt, if there is one
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() :
+                            new IOException(e.getCause());
+                }
+                done = null;
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } finally {
+            for (Attempt attempt : attempts) attempt.cancel();
+        }
+    }
+
+    @Override
+    public Response get(final String url, final Map<String, String> headers, final Cancellation cancellation)
+            throws IOException {
+        // Hedged requests are already cancelled by the hedging
+        return get(url, headers);
+    }
+
+    private Attempt start(final CompletionService<Response> completion, final String url,
+                          final Map<String, String> headers, final RequestGovernor.Permit permit) {
+        final Cancellation cancellation = new Cancellation();
+        final Future<Response> future = completion.submit(Deadline.wrap(() -> {
+            final long start = System.nanoTime();
+            boolean answered = false;
+            try {
+                Response response = delegate.get(url, headers, cancellation);
+                answered = true;
+                return response;
+            } finally {
+                // A cancelled attempt was still slow - its time so far is a lower bound, and dropping it would hide
+                // the slow tail that the hedge delay is meant to cover
+                if (answered || cancellation.isCancelled())
+                    latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                if (permit != null) permit.close();
+            }
+        }));
+        return new Attempt(future, cancellation);
+    }
+
+    private synchronized void depositBudget(final double amount) {
+        budget = Math.min(MAX_BUDGET, budget + amount);
+    }
+
+    private synchronized boolean withdrawBudget() {
+        if (budget < 1) return false;
+        budget -= 1;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d requests, %d hedged (%d answered first), p%.0f %d ms",
+                requests.get(), hedges.get(), hedgeWins.get(), HEDGE_PERCENTILE, latency.percentile(HEDGE_PERCENTILE));
+    }
+
+    private static class Attempt {
+        final Future<Response> future;
+        final Cancellation cancellation;
+
+        Attempt(Future<Response> future, Cancellation cancellation) {
+            this.future = future;
+            this.cancellation = cancellation;
+        }
+
+        void cancel() {
+            if (future.isDone()) return;
+            cancellation.cancel();
+            future.cancel(true);
+        }
+    }
+}
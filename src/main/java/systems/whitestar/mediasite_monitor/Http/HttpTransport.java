@@ -0,0 +1,89 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.extern.log4j.Log4j;
+import org.apache.http.Header;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP Client with its own connection pool, so that each Mediasite server the agent talks to has connections that are
+ * isolated from the others.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class HttpTransport implements Transport {
+    private static final int CONNECT_TIMEOUT = 10; // Seconds
+    private static final int SOCKET_TIMEOUT = 60;  // Seconds
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+
+    /**
+     * @param maxConnections Maximum number of pooled connections, in total and to any one host
+     */
+    public HttpTransport(int maxConnections) {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .build();
+    }
+
+    /**
+     * Build the timeouts for a request, shortened to end by the thread's {@link Deadline}
+     *
+     * @return {@link RequestConfig} Request Config
+     * @throws Deadline.ExceededException The deadline has already passed
+     */
+    private static RequestConfig requestConfig() throws Deadline.ExceededException {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout((int) Deadline.bound(Integer.MAX_VALUE))
+                .setConnectTimeout((int) Deadline.bound(TimeUnit.SECONDS.toMillis(CONNECT_TIMEOUT)))
+                .setSocketTimeout((int) Deadline.bound(TimeUnit.SECONDS.toMillis(SOCKET_TIMEOUT)))
+                .build();
+    }
+
+    @Override
+    public Response get(final String url, final Map<String, String> headers) throws IOException {
+        return get(url, headers, null);
+    }
+
+    @Override
+    public Response get(final String url, final Map<String, String> headers, final Cancellation cancellation)
+            throws IOException {
+        HttpGet request = new HttpGet(url);
+        request.setConfig(requestConfig());
+        if (cancellation != null) cancellation.onCancel(request::abort);
+        for (Map.Entry<String, String> header : headers.entrySet()) request.setHeader(header.getKey(), header.getValue());
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            Map<String, String> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (Header header : response.getAllHeaders()) responseHeaders.putIfAbsent(header.getName(), header.getValue());
+
+            return new Response(response.getStatusLine().getStatusCode(),
+                    response.getEntity() != null ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : null,
+                    Collections.unmodifiableMap(responseHeaders));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,54 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the most recent response times for a host, to estimate its latency percentiles.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class LatencyTracker {
+    private final long[] samples; // Milliseconds, as a ring buffer
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param window Number of recent responses to keep
+     */
+    public LatencyTracker(final int window) {
+        samples = new long[window];
+    }
+
+    /**
+     * @param millis Response time in milliseconds
+     */
+    public synchronized void record(final long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    /**
+     * @return Number of response times kept
+     */
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * @param percentile Percentile, between 0 and 100
+     * @return Response time, in milliseconds, at the percentile of the kept responses, or -1 if there are none
+     */
+    public long percentile(final double percentile) {
+        final long[] sorted;
+        synchronized (this) {
+            if (count == 0) return -1;
+            sorted = Arrays.copyOf(samples, count);
+        }
+
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,114 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.extern.log4j.Log4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Quickly triage which hosts are accepting connections on a port. Opens non-blocking TCP connections to every host at
+ * once through a single {@link Selector}, and reports the hosts that completed the handshake before the deadline. No
+ * data is sent - the connections are closed as soon as they are established.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class ReachabilityScanner {
+    private static final int MAX_PENDING = 1000; // Connections open at once, to stay well within file descriptor limits
+
+    /**
+     * Find the hosts that accept a TCP connection on the given port.
+     *
+     * @param hosts   {@link Collection} Host IP Addresses to scan
+     * @param port    TCP Port
+     * @param timeout How long, in milliseconds, to wait for each batch of connections
+     * @return {@link Set} Hosts that answered
+     */
+    public static Set<String> scan(final Collection<String> hosts, final int port, final long timeout) {
+        final Set<String> reachable = new HashSet<>();
+        final List<String> hostList = new ArrayList<>(new HashSet<>(hosts));
+        final long start = System.currentTimeMillis();
+
+        for (int i = 0; i < hostList.size(); i += MAX_PENDING) {
+            reachable.addAll(scanBatch(hostList.subList(i, Math.min(i + MAX_PENDING, hostList.size())), port, timeout));
+        }
+
+        log.debug(String.format("Reachability scan of port %d found %d of %d hosts in %d ms",
+                port, reachable.size(), hostList.size(), System.currentTimeMillis() - start));
+        return reachable;
+    }
+
+    private static Set<String> scanBatch(final List<String> hosts, final int port, final long timeout) {
+        final Set<String> reachable = new HashSet<>();
+        int pending = 0;
+
+        try (Selector selector = Selector.open()) {
+            for (String host : hosts) {
+                SocketChannel channel = null;
+                try {
+                    channel = SocketChannel.open();
+                    channel.configureBlocking(false);
+                    if (channel.connect(new InetSocketAddress(host, port))) {
+                        reachable.add(host);
+                        channel.close();
+                    } else {
+                        channel.register(selector, SelectionKey.OP_CONNECT, host);
+                        pending++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug(String.format("Could not start connection to %s:%d", host, port), e);
+                    if (channel != null) close(channel);
+                }
+            }
+
+            final long deadline = System.currentTimeMillis() + timeout;
+            long remaining;
+            while (pending > 0 && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                if (selector.select(remaining) == 0) continue;
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    try {
+                        if (channel.finishConnect()) reachable.add((String) key.attachment());
+                    } catch (IOException e) {
+                        log.trace(String.format("Connection to %s:%d refused", key.attachment(), port));
+                    }
+                    key.cancel();
+                    close(channel);
+                    pending--;
+                }
+            }
+
+            // Anything still pending did not answer in time
+            for (SelectionKey key : selector.keys()) close(key.channel());
+        } catch (IOException e) {
+            log.warn("Problem running reachability scan - assuming all hosts are reachable", e);
+            reachable.addAll(hosts);
+        }
+
+        return reachable;
+    }
+
+    private static void close(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.trace("Problem closing channel", e);
+        }
+    }
+}
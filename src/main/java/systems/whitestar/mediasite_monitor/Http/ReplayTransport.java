@@ -0,0 +1,174 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.extern.log4j.Log4j;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Plays back traffic recorded by a {@link TrafficCapture} instead of making requests, so that whole jobs can be run and
+ * timed without a Mediasite server or recorders. Each request is answered with the recorded response for the same URL
+ * (and the same kind of request - conditional or not), after the time it took when it was recorded, divided by the
+ * replay speed. When a URL was requested several times, the responses are played back in the order they were recorded,
+ * and the last one is repeated.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class ReplayTransport implements Transport {
+    private static Gson gson = new Gson();
+
+    private final Map<String, List<Exchange>> exchanges;
+    private final Map<String, AtomicInteger> positions = new ConcurrentHashMap<>();
+    private final double speed;
+
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong missing = new AtomicLong();
+
+    private ReplayTransport(Map<String, List<Exchange>> exchanges, double speed) {
+        this.exchanges = exchanges;
+        this.speed = speed;
+    }
+
+    /**
+     * Load a capture
+     *
+     * @param file  {@link File} Capture File
+     * @param speed How much faster than recorded to respond: 1 for the recorded timing, 0 to respond immediately
+     * @return {@link ReplayTransport} Transport that plays back the capture
+     * @throws IOException Capture could not be read
+     */
+    public static ReplayTransport load(final File file, final double speed) throws IOException {
+        final Map<String, List<Exchange>> exchanges = new HashMap<>();
+        int count = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            Exchange header = line != null ? gson.fromJson(line, Exchange.class) : null;
+            if (header == null || header.capture != TrafficCapture.FORMAT_VERSION)
+                throw new IOException("Not a Mediasite traffic capture - " + file);
+
+            while ((line = reader.readLine()) != null) {
+                Exchange exchange;
+                try {
+                    exchange = gson.fromJson(line, Exchange.class);
+                } catch (JsonParseException e) {
+                    // The last line may be incomplete if the agent was stopped while recording
+                    log.warn("Skipping incomplete line in capture " + file);
+                    continue;
+                }
+                exchanges.computeIfAbsent(key(exchange.url, exchange.conditional), k -> new ArrayList<>()).add(exchange);
+                count++;
+            }
+        }
+
+        log.info(String.format("Replaying %d Mediasite requests for %d URLs from %s at %sx speed",
+                count, exchanges.size(), file, speed > 0 ? speed : "unlimited"));
+        return new ReplayTransport(exchanges, speed);
+    }
+
+    private static InputStream open(final File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(in) : in;
+    }
+
+    @Override
+    public Response get(final String url, final Map<String, String> headers) throws IOException {
+        final String recordedURL = TrafficCapture.scrubURL(url);
+        final boolean conditional = headers.containsKey("If-None-Match") || headers.containsKey("If-Modified-Since");
+
+        // Fall back to the other kind of request for the URL, keeping to the order of the responses that are replayed
+        String key = key(recordedURL, conditional);
+        List<Exchange> recorded = exchanges.get(key);
+        if (recorded == null) {
+            key = key(recordedURL, !conditional);
+            recorded = exchanges.get(key);
+        }
+        if (recorded == null) {
+            missing.incrementAndGet();
+            log.warn("No recorded response for " + recordedURL);
+            return new Response(404, null, Collections.emptyMap());
+        }
+
+        final int position = positions.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        final Exchange exchange = recorded.get(Math.min(position, recorded.size() - 1));
+
+        delay(exchange.d);
+        replayed.incrementAndGet();
+        if (exchange.error != null) throw recreate(exchange);
+
+        Map<String, String> responseHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (exchange.headers != null) responseHeaders.putAll(exchange.headers);
+        return new Response(exchange.status, exchange.body, Collections.unmodifiableMap(responseHeaders));
+    }
+
+    /**
+     * Wait as long as the recorded request took, at the replay speed, but no longer than the thread's {@link Deadline}
+     */
+    private void delay(final long recorded) throws IOException {
+        if (speed <= 0) return;
+
+        final long delay = (long) (recorded / speed);
+        final long remaining = Deadline.remaining();
+        try {
+            TimeUnit.MILLISECONDS.sleep(Math.min(delay, Math.max(0, remaining)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while replaying request");
+        }
+        if (delay >= remaining) throw new SocketTimeoutException("Read timed out");
+    }
+
+    /**
+     * @return {@link IOException} The same kind of exception as was thrown when the request was recorded
+     */
+    private static IOException recreate(final Exchange exchange) {
+        try {
+            Class<?> type = Class.forName(exchange.error);
+            if (IOException.class.isAssignableFrom(type)) {
+                Constructor<?> constructor = type.getConstructor(String.class);
+                return (IOException) constructor.newInstance(exchange.message);
+            }
+        } catch (ReflectiveOperationException e) {
+            // Fall back to a plain IOException
+        }
+        return new IOException(exchange.message);
+    }
+
+    private static String key(final String url, final boolean conditional) {
+        return (conditional ? "C " : "U ") + url;
+    }
+
+    @Override
+    public void close() {
+        log.info(String.format("Replayed %d Mediasite requests, %d had no recording", replayed.get(), missing.get()));
+    }
+
+    @SuppressWarnings("unused")
+    private static class Exchange {
+        int capture;
+        long t;
+        long d;
+        String url;
+        boolean conditional;
+        int status;
+        Map<String, String> headers;
+        String body;
+        String error;
+        String message;
+    }
+}
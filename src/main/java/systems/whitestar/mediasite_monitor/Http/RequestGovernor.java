@@ -0,0 +1,170 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the load the agent puts on a host, both in requests per second (token bucket) and in concurrent in-flight
+ * requests (semaphore). Callers acquire a {@link Permit} before each request and close it when the response has been
+ * read. The time spent waiting for permits is tracked so throttling is visible.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class RequestGovernor {
+    @Getter
+    private final String name;
+    private final double requestsPerSecond;
+    private final double burst;
+    private final Semaphore concurrency;
+
+    private double tokens;
+    private long lastRefill;
+
+    private final AtomicLong permits = new AtomicLong();
+    private final AtomicLong totalWait = new AtomicLong();
+    private final AtomicLong maxWait = new AtomicLong();
+
+    /**
+     * @param name              {@link String} Name of the budget, used in logs
+     * @param requestsPerSecond Sustained request rate. Zero or less disables rate limiting.
+     * @param maxConcurrent     Maximum requests in flight at once. Zero or less disables the concurrency limit.
+     */
+    public RequestGovernor(String name, double requestsPerSecond, int maxConcurrent) {
+        this.name = name;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = Math.max(1, requestsPerSecond);
+        this.concurrency = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Wait until the request is allowed to proceed, or until the thread's {@link Deadline} passes.
+     *
+     * @return {@link Permit} Permit to close once the request has completed
+     * @throws InterruptedException        Thread was interrupted while waiting for a permit
+     * @throws Deadline.ExceededException The thread's deadline passed while waiting for a permit
+     */
+    public Permit acquire() throws InterruptedException, Deadline.ExceededException {
+        final long start = System.nanoTime();
+
+        if (concurrency != null && !concurrency.tryAcquire(Deadline.bound(Long.MAX_VALUE), TimeUnit.MILLISECONDS))
+            throw new Deadline.ExceededException();
+        try {
+            takeToken();
+        } catch (InterruptedException | Deadline.ExceededException e) {
+            if (concurrency != null) concurrency.release();
+            throw e;
+        }
+
+        final long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        permits.incrementAndGet();
+        totalWait.addAndGet(waited);
+        maxWait.accumulateAndGet(waited, Math::max);
+
+        return new Permit(waited);
+    }
+
+    /**
+     * Get a permit only if one is available right away, for requests that are not worth waiting for.
+     *
+     * @return {@link Permit} Permit to close once the request has completed, or null if the budget is used up
+     */
+    public Permit tryAcquire() {
+        if (concurrency != null && !concurrency.tryAcquire()) return null;
+        if (!tryTakeToken()) {
+            if (concurrency != null) concurrency.release();
+            return null;
+        }
+
+        permits.incrementAndGet();
+        return new Permit(0);
+    }
+
+    private synchronized boolean tryTakeToken() {
+        if (requestsPerSecond <= 0) return true;
+
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * requestsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+
+    private void takeToken() throws InterruptedException, Deadline.ExceededException {
+        if (requestsPerSecond <= 0) return;
+
+        while (true) {
+            long sleepNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                tokens = Math.min(burst, tokens + (now - lastRefill) * requestsPerSecond / TimeUnit.SECONDS.toNanos(1));
+                lastRefill = now;
+
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                sleepNanos = (long) ((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+            }
+            if (TimeUnit.NANOSECONDS.toMillis(sleepNanos) >= Deadline.remaining()) throw new Deadline.ExceededException();
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+    }
+
+    /**
+     * @return Number of permits granted since the agent started
+     */
+    public long getPermitCount() {
+        return permits.get();
+    }
+
+    /**
+     * @return Average time, in milliseconds, a request waited for its permit
+     */
+    public double getAverageWait() {
+        long count = permits.get();
+        return count == 0 ? 0 : (double) totalWait.get() / count;
+    }
+
+    /**
+     * @return Longest time, in milliseconds, a request waited for its permit
+     */
+    public long getMaxWait() {
+        return maxWait.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d permits, avg wait %.1f ms, max wait %d ms",
+                name, getPermitCount(), getAverageWait(), getMaxWait());
+    }
+
+    /**
+     * Permission to make one request. Must be closed when the request completes to free the concurrency slot.
+     */
+    public class Permit implements AutoCloseable {
+        @Getter
+        private final long waited;
+        private boolean released = false;
+
+        private Permit(long waited) {
+            this.waited = waited;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            if (concurrency != null) concurrency.release();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.extern.log4j.Log4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical requests. While a call for a key is in flight, anyone else asking for the same key
+ * waits for that call and shares its result, instead of making their own. Nothing is kept once the call completes, so
+ * results are never stale. Callers only wait for a shared call until their own {@link Deadline}, and a result that
+ * arrives after the deadline of the caller that made the call is not shared - the callers waiting for it make their own.
+ *
+ * @param <K> Request Key Type
+ * @param <V> Result Type
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * Get the result for a key, making the call only if there is not one already in flight for the same key.
+     *
+     * @param key  Request Key
+     * @param call {@link Supplier} Makes the request
+     * @return Result of the call, or null if this thread was interrupted or reached its deadline while waiting for
+     * another caller's result
+     */
+    public V execute(final K key, final Supplier<V> call) {
+        while (true) {
+            final CompletableFuture<V> future = new CompletableFuture<>();
+            final CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+            if (existing != null) {
+                log.debug("Joining in-flight request - " + key);
+                try {
+                    final V result = existing.get(Math.max(0, Deadline.remaining()), TimeUnit.MILLISECONDS);
+                    shared.incrementAndGet();
+                    return result;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                } catch (TimeoutException e) {
+                    log.debug("Deadline exceeded while waiting for in-flight request - " + key);
+                    return null;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof LateResultException) continue; // Make our own call
+                    if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+
+            calls.incrementAndGet();
+            try {
+                final V result = call.get();
+                inFlight.remove(key, future);
+                if (Deadline.isExpired()) future.completeExceptionally(new LateResultException());
+                else future.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                inFlight.remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return Number of calls actually made
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /**
+     * @return Number of requests that shared another request's call
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+
+    /**
+     * The call finished after the deadline of the caller that made it, so its result is not shared
+     */
+    private static class LateResultException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
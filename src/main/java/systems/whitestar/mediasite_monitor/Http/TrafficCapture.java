@@ -0,0 +1,145 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.extern.log4j.Log4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the Mediasite traffic of one or more transports to a file, so it can be played back by a
+ * {@link ReplayTransport}. Each request is written as one gzipped line of JSON, with when it was made, how long it took,
+ * and the response, or the error if it failed.
+ * <p>
+ * Credentials are never written: request headers (including the API key and Authorization) are not recorded, secrets
+ * in URLs are redacted, and only the response headers that the client uses are kept. Password and key fields in
+ * response bodies, such as a schedule's RecorderPassword, are redacted too.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class TrafficCapture implements Closeable {
+    static final int FORMAT_VERSION = 1;
+    static final List<String> RECORDED_HEADERS = Arrays.asList("ETag", "Last-Modified", "Content-Type");
+    private static final String REDACTED = "REDACTED";
+    private static final Pattern SECRET_FIELD = Pattern.compile(
+            "(\"[^\"]*(?:Password|EncryptionKey|ApiKey|Token)[^\"]*\"\\s*:\\s*)\"(?:[^\"\\\\]|\\\\.)*\"",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern SECRET_PARAMETER = Pattern.compile(
+            "([?&][^=&]*(?:password|apikey|key|token)[^=&]*=)[^&]*", Pattern.CASE_INSENSITIVE);
+    private static final Pattern USER_INFO = Pattern.compile("^(\\w+://)[^/@]*@");
+
+    private static Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final Writer writer;
+    private final long started = System.nanoTime();
+    private long count = 0;
+
+    /**
+     * @param file {@link File} File to record to. Replaced if it already exists.
+     * @throws IOException File could not be created
+     */
+    public TrafficCapture(final File file) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file), true), StandardCharsets.UTF_8));
+
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("capture", FORMAT_VERSION);
+        header.put("started", Instant.now().toString());
+        write(header);
+        log.info("Recording Mediasite traffic to " + file);
+    }
+
+    /**
+     * @param transport {@link Transport} Transport to record
+     * @return {@link Transport} Transport that makes its requests with the given transport, and records them
+     */
+    public Transport wrap(final Transport transport) {
+        return new Transport() {
+            @Override
+            public Response get(String url, Map<String, String> headers) throws IOException {
+                return get(url, headers, null);
+            }
+
+            @Override
+            public Response get(String url, Map<String, String> headers, Cancellation cancellation)
+                    throws IOException {
+                final long start = System.nanoTime();
+                try {
+                    Response response = transport.get(url, headers, cancellation);
+                    record(start, url, headers, response, null);
+                    return response;
+                } catch (IOException e) {
+                    record(start, url, headers, null, e);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                transport.close();
+            }
+        };
+    }
+
+    private void record(final long start, final String url, final Map<String, String> requestHeaders,
+                        final Transport.Response response, final IOException error) {
+        final long now = System.nanoTime();
+
+        Map<String, Object> exchange = new LinkedHashMap<>();
+        exchange.put("t", (start - started) / 1_000_000);   // Milliseconds since the capture started
+        exchange.put("d", (now - start) / 1_000_000);       // Milliseconds the request took
+        exchange.put("url", scrubURL(url));
+        exchange.put("conditional", requestHeaders.containsKey("If-None-Match") ||
+                requestHeaders.containsKey("If-Modified-Since"));
+
+        if (response != null) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : RECORDED_HEADERS) {
+                if (response.getHeader(name) != null) headers.put(name, response.getHeader(name));
+            }
+
+            exchange.put("status", response.getStatus());
+            exchange.put("headers", headers);
+            exchange.put("body", scrubBody(response.getBody()));
+        } else {
+            exchange.put("error", error.getClass().getName());
+            exchange.put("message", error.getMessage());
+        }
+
+        try {
+            write(exchange);
+        } catch (IOException e) {
+            log.warn("Could not record Mediasite request - " + scrubURL(url), e);
+        }
+    }
+
+    private synchronized void write(final Map<String, Object> line) throws IOException {
+        writer.write(gson.toJson(line));
+        writer.write('\n');
+        if (++count % 100 == 0) writer.flush(); // Keep the file readable if the agent is stopped
+    }
+
+    static String scrubURL(final String url) {
+        if (url == null) return null;
+        String scrubbed = USER_INFO.matcher(url).replaceFirst("$1");
+        return SECRET_PARAMETER.matcher(scrubbed).replaceAll("$1" + REDACTED);
+    }
+
+    static String scrubBody(final String body) {
+        if (body == null) return null;
+        return SECRET_FIELD.matcher(body).replaceAll("$1\"" + REDACTED + "\"");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+        log.info(String.format("Recorded %d Mediasite requests", count - 1));
+    }
+}
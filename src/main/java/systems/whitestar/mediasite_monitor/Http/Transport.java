@@ -0,0 +1,56 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Makes the HTTP requests for a Mediasite client. Normally an {@link HttpTransport}; a {@link TrafficCapture} can wrap
+ * it to record the traffic, and a {@link ReplayTransport} can stand in for it to play recorded traffic back.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public interface Transport extends Closeable {
+    /**
+     * Make a GET Request
+     *
+     * @param url     {@link String} Request URL
+     * @param headers {@link Map} Request Headers
+     * @return {@link Response} Response
+     * @throws IOException Request failed
+     */
+    Response get(String url, Map<String, String> headers) throws IOException;
+
+    /**
+     * Make a GET Request that another thread can abandon
+     *
+     * @param url          {@link String} Request URL
+     * @param headers      {@link Map} Request Headers
+     * @param cancellation {@link Cancellation} Aborts the request when cancelled
+     * @return {@link Response} Response
+     * @throws IOException Request failed, or was cancelled
+     */
+    default Response get(String url, Map<String, String> headers, Cancellation cancellation) throws IOException {
+        return get(url, headers);
+    }
+
+    @Getter
+    class Response {
+        private final int status;
+        private final String body;
+        private final Map<String, String> headers; // Case-insensitive
+
+        public Response(int status, String body, Map<String, String> headers) {
+            this.status = status;
+            this.body = body;
+            this.headers = headers;
+        }
+
+        public String getHeader(final String name) {
+            return headers.get(name);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package systems.whitestar.mediasite_monitor.Http;
+
+import lombok.Value;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the cache validators (ETag and Last-Modified) that the server sent for each URL, along with the decoded
+ * response, so requests can be made conditional and a "304 Not Modified" answered from memory. The least recently used
+ * URLs are evicted once the cache is full.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class ValidatorCache {
+    private final Map<String, Entry> entries;
+
+    public ValidatorCache(final int maxEntries) {
+        entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ValidatorCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * @param url {@link String} Request URL
+     * @return {@link Entry} Validators and decoded response for the URL, or null if there are none
+     */
+    public Entry get(final String url) {
+        return entries.get(url);
+    }
+
+    /**
+     * Store the validators for a response. Responses without any validators are not cached.
+     *
+     * @param url          {@link String} Request URL
+     * @param etag         {@link String} ETag Header Value
+     * @param lastModified {@link String} Last-Modified Header Value
+     * @param value        {@link Object} Decoded Response. Shared by everyone who reuses it, so must not be modified.
+     */
+    public void put(final String url, final String etag, final String lastModified, final Object value) {
+        if (etag == null && lastModified == null) {
+            entries.remove(url);
+            return;
+        }
+        entries.put(url, new Entry(etag, lastModified, value));
+    }
+
+    @Value
+    public static class Entry {
+        String etag;
+        String lastModified;
+        Object value;
+    }
+}
@@ -0,0 +1,35 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import lombok.extern.log4j.Log4j;
+
+import java.util.Map;
+
+/**
+ * Reads typed values from job payloads, whose entries are all Strings.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+final class Payloads {
+    private Payloads() {
+    }
+
+    /**
+     * @param payload      {@link Map} Job Payload
+     * @param key          {@link String} Payload Entry
+     * @param defaultValue Value to use if the entry is missing or not a number
+     * @return Value of the entry
+     */
+    static long getLong(final Map<String, String> payload, final String key, final long defaultValue) {
+        String value = payload.get(key);
+        if (value == null || value.isEmpty()) return defaultValue;
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            log.warn(String.format("Invalid value for \"%s\" - \"%s\"", key, value));
+            return defaultValue;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import com.google.gson.Gson;
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Http.CircuitBreakerRegistry;
+import systems.whitestar.mediasite_monitor.Mediasite;
+
+import java.util.Map;
+
+/**
+ * Report the state of the agent's per-recorder Circuit Breakers, and their recent state changes.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@SuppressWarnings("unused")
+@Log4j
+public class RecorderCircuitBreakers implements AgentJobInterface {
+    @Override public Map<String, String> execute(Map<String, String> payload) {
+        CircuitBreakerRegistry breakers = Mediasite.getInstance(payload.get("tenant")).getRecorderBreakers();
+
+        payload.put("breakers", new Gson().toJson(breakers.getStates()));
+        payload.put("transitions", new Gson().toJson(breakers.getTransitions()));
+        return payload;
+    }
+}
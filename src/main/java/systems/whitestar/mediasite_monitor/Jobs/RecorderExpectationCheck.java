@@ -29,15 +29,17 @@ public class RecorderExpectationCheck implements AgentJobInterface {
 
         log.debug(expectation);
 
+        final Mediasite mediasite = Mediasite.getInstance(payload.get("tenant"));
+
         // Verify that recording is still scheduled
-        Schedule.Recurrence recurrence = Mediasite.getInstance().getRecurence(expectation.getScheduleId(), expectation.getRecurrenceId());
+        Schedule.Recurrence recurrence = mediasite.getRecurence(expectation.getScheduleId(), expectation.getRecurrenceId());
         if (!validRecurrence(recurrence)) {
             log.info("Schedule has changed since the expectation was scheduled. Skipping this check");
             payload.put("result", "skipped");
         }
 
         // Check Recorder Status
-        Recorder recorder = Mediasite.getInstance().getRecorder(expectation.getRecorder().getId());
+        Recorder recorder = mediasite.getRecorder(expectation.getRecorder().getId());
         if (recorder.getStatus() == expectation.getExpectedStatus()) {
             log.debug("Expectation Check Passed!");
             payload.put("result", "ok");
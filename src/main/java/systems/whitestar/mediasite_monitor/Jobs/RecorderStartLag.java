@@ -0,0 +1,48 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import com.google.gson.Gson;
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Monitor.StartLagHistory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report how late recorders have started their scheduled recordings, as measured by the agent's start lag monitor: the
+ * lag distribution for each recorder and for each schedule. If a single recorder or schedule is requested, its
+ * individual measurements are included too.
+ * <p>
+ * Payload (all optional): tenant, recorderID, scheduleID, from & to (seconds since the epoch, defaults to the last 7 days).
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@SuppressWarnings("unused")
+@Log4j
+public class RecorderStartLag implements AgentJobInterface {
+    private static final long DEFAULT_RANGE = TimeUnit.DAYS.toSeconds(7);
+
+    @Override public Map<String, String> execute(Map<String, String> payload) {
+        final String tenant = Mediasite.getInstance(payload.get("tenant")).getTenant();
+        final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        final String recorderID = payload.get("recorderID");
+        final String scheduleID = payload.get("scheduleID");
+        final long to = Payloads.getLong(payload, "to", now);
+        final long from = Payloads.getLong(payload, "from", to - DEFAULT_RANGE);
+
+        final List<StartLagHistory.Measurement> measurements = StartLagHistory.getInstance().query(
+                tenant, recorderID, scheduleID, TimeUnit.SECONDS.toMillis(from), TimeUnit.SECONDS.toMillis(to));
+
+        log.debug(String.format("Summarising %d start lag measurements", measurements.size()));
+        final Gson gson = new Gson();
+        payload.put("byRecorder", gson.toJson(
+                StartLagHistory.summarise(measurements, StartLagHistory.Measurement::getRecorderId)));
+        payload.put("bySchedule", gson.toJson(
+                StartLagHistory.summarise(measurements, StartLagHistory.Measurement::getScheduleId)));
+        if (recorderID != null || scheduleID != null) payload.put("measurements", gson.toJson(measurements));
+        return payload;
+    }
+}
@@ -0,0 +1,52 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import com.google.gson.Gson;
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Monitor.StatusHistory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summarise the status history the agent has collected for its recorders: transitions, time spent in each state, and
+ * whether the recorder is flapping. If a single recorder is requested, its individual transitions are included too.
+ * <p>
+ * Payload (all optional): tenant, recorderID, from & to (seconds since the epoch, defaults to the last 24 hours), flapWindow
+ * (seconds) and flapThreshold (transitions within the window).
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@SuppressWarnings("unused")
+@Log4j
+public class RecorderStatusHistory implements AgentJobInterface {
+    private static final long DEFAULT_RANGE = TimeUnit.DAYS.toSeconds(1);
+    private static final long DEFAULT_FLAP_WINDOW = TimeUnit.HOURS.toSeconds(1);
+    private static final int DEFAULT_FLAP_THRESHOLD = 6;
+
+    @Override public Map<String, String> execute(Map<String, String> payload) {
+        final StatusHistory history = StatusHistory.getInstance();
+        final String tenant = Mediasite.getInstance(payload.get("tenant")).getTenant();
+        final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+
+        final String recorderID = payload.get("recorderID");
+        final long to = Payloads.getLong(payload, "to", now);
+        final long from = Payloads.getLong(payload, "from", to - DEFAULT_RANGE);
+        final long flapWindow = Payloads.getLong(payload, "flapWindow", DEFAULT_FLAP_WINDOW);
+        final int flapThreshold = (int) Payloads.getLong(payload, "flapThreshold", DEFAULT_FLAP_THRESHOLD);
+
+        final Collection<String> recorders = recorderID != null ?
+                Collections.singleton(recorderID) : history.getRecorderIds(tenant);
+        final List<StatusHistory.Summary> summaries = new ArrayList<>();
+        for (String id : recorders) {
+            StatusHistory.Summary summary = history.summarise(tenant, id, from, to, flapWindow, flapThreshold);
+            if (summary != null) summaries.add(summary);
+        }
+
+        log.debug(String.format("Summarised status history for %d recorders", summaries.size()));
+        payload.put("history", new Gson().toJson(summaries));
+        if (recorderID != null) payload.put("samples", new Gson().toJson(history.query(tenant, recorderID, from, to)));
+        return payload;
+    }
+}
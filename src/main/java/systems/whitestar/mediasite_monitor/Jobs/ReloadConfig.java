@@ -0,0 +1,24 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Agent;
+
+import java.util.Map;
+
+/**
+ * Fetch the agent's configuration from the server again and apply it, such as after the server's Mediasite credentials
+ * have been rotated. Reports if the configuration had changed.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@SuppressWarnings("unused")
+@Log4j
+public class ReloadConfig implements AgentJobInterface {
+    @Override public Map<String, String> execute(Map<String, String> payload) {
+        log.info("Reloading Agent Configuration at the server's request");
+
+        payload.put("changed", Boolean.toString(Agent.reloadConfig()));
+        return payload;
+    }
+}
@@ -1,30 +1,79 @@
 package systems.whitestar.mediasite_monitor.Jobs;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import lombok.extern.log4j.Log4j;
 import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Models.Recorder;
 import systems.whitestar.mediasite_monitor.Models.RecorderExpectation;
 import systems.whitestar.mediasite_monitor.Models.Schedule;
 import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderOwnership;
 
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 
 /**
+ * Finds the recordings that are scheduled to start today, so the server can check that each one does.
+ * <p>
+ * The schedule list is walked one page at a time, and each schedule's recurrences one page at a time, so memory is
+ * bounded by the page size rather than by the size of the catalogue. Only the IDs needed to check an expectation are
+ * kept, and expectations are written to the result as they are found.
+ *
  * @author Tom Paulus
  * Created on 5/9/18.
  */
 @SuppressWarnings("unused")
 @Log4j
-public class ScheduleExpectationChecks implements AgentJobInterface {
+public class ScheduleExpectationChecks implements StreamingJobInterface {
     private static final DateFormat ISO_DF = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+    private static Gson gson = new Gson();
 
     @Override public Map<String, String> execute(Map<String, String> payload) {
         log.info("Starting Schedule Expectation Check Scheduler Job");
 
-        Schedule[] schedule = Mediasite.getInstance().getSchedule();
+        final List<RecorderExpectation> expectations = new ArrayList<>();
+        try {
+            findExpectations(payload, expectations::add);
+        } catch (IOException e) {
+            // Adding to a list does not throw
+            throw new RuntimeException(e);
+        }
+
+        payload.put("expectations", gson.toJson(expectations));
+
+        log.info("Finished Schedule Expectation Check Scheduler Job");
+
+        return payload;
+    }
+
+    @Override public String getStreamedField() {
+        return "expectations";
+    }
+
+    @Override public void stream(Map<String, String> payload, JsonWriter writer) throws IOException {
+        log.info("Starting Schedule Expectation Check Scheduler Job - Streaming");
+
+        writer.beginArray();
+        findExpectations(payload, expectation -> gson.toJson(expectation, RecorderExpectation.class, writer));
+        writer.endArray();
+
+        log.info("Finished Schedule Expectation Check Scheduler Job");
+    }
+
+    /**
+     * Walk the schedule, and pass on each recording that is expected to start today
+     *
+     * @param payload {@link Map} Job Payload
+     * @param handler {@link ExpectationHandler} Called with each expectation, as it is found
+     * @throws IOException The handler could not process an expectation
+     */
+    private void findExpectations(final Map<String, String> payload, final ExpectationHandler handler)
+            throws IOException {
+        final Mediasite mediasite = Mediasite.getInstance(payload.get("tenant"));
         Calendar instance = Calendar.getInstance();
         instance.set(Calendar.HOUR_OF_DAY, 0);
         instance.set(Calendar.MINUTE, 0);
@@ -34,47 +83,102 @@ public class ScheduleExpectationChecks implements AgentJobInterface {
         instance.set(Calendar.MINUTE, 59);
         final Date endOfToday = instance.getTime();
 
-        final List<RecorderExpectation> expectations = new ArrayList<>();
-
-        if (schedule == null || schedule.length == 0) {
-            log.info("Could not pull schedule from Mediasite, or it has no events - skipping job for this run");
-            payload.put("expectations", new Gson().toJson(expectations));
-            return payload;
-        }
-
-        for (Schedule s : schedule) {
-            Schedule.Recurrence[] recurrences = Mediasite.getInstance().getRecurrences(s);
-            if (recurrences == null || recurrences.length == 0) {
-                log.info(String.format("Could not pull recurrences for schedule %s from Mediasite," +
-                        "or it has no events - skipping job for this run", s.getId()));
-                continue;
+        final int[] count = {0, 0}; // Schedules, Expectations
+        Mediasite.CollectionState state = mediasite.getSchedules(page -> {
+            // Keep only what is needed from the page, so it can be released while its recurrences are retrieved
+            final List<ScheduleRef> schedules = new ArrayList<>(page.length);
+            for (Schedule s : page) {
+                if (!RecorderOwnership.getInstance().owns(s.getRecorderId())) {
+                    log.debug(String.format("Skipping Schedule %s - recorder is owned by another agent", s.getId()));
+                    continue;
+                }
+                schedules.add(new ScheduleRef(s.getId(), s.getRecorderId(), s.getRecorderName()));
             }
-            for (Schedule.Recurrence recurrence : recurrences) {
-                try {
-                    Date recurrenceDate = ISO_DF.parse(recurrence.getNextScheduleTime());
-                    if (recurrenceDate.after(startOfToday) && recurrenceDate.before(endOfToday)) {
-                        // Make list of today's scheduled recordings
-                        expectations.add(RecorderExpectation.builder()
-                                .recorder(Mediasite.getInstance().getRecorder(recurrence.getParentSchedule().getRecorderId()))
-                                .expectationTime(recurrenceDate)
-                                .expectedStatus(Status.RECORDING)
-                                .scheduleId(recurrence.getParentSchedule().getId())
-                                .recurrenceId(recurrence.getId())
-                                .build());
-                    } else {
-                        log.debug(String.format("Skipping Recurrence %s for Schedule %s - not today", recurrence.getId(), s.getId()));
+            count[0] += page.length;
+
+            for (ScheduleRef schedule : schedules) {
+                Mediasite.CollectionState recurrences = mediasite.getRecurrences(schedule.id, recurrencePage -> {
+                    for (Schedule.Recurrence recurrence : recurrencePage) {
+                        try {
+                            Date recurrenceDate = expectedBetween(recurrence, startOfToday, endOfToday);
+                            if (recurrenceDate != null) {
+                                // Make list of today's scheduled recordings
+                                handler.handle(RecorderExpectation.builder()
+                                        .recorder(schedule.getRecorder())
+                                        .expectationTime(recurrenceDate)
+                                        .expectedStatus(Status.RECORDING)
+                                        .scheduleId(schedule.id)
+                                        .recurrenceId(recurrence.getId())
+                                        .build());
+                                count[1]++;
+                            } else {
+                                log.debug(String.format("Skipping Recurrence %s for Schedule %s - not today", recurrence.getId(), schedule.id));
+                            }
+                        } catch (ParseException e) {
+                            log.warn(String.format("Unable to parse Next Occurrence for Recurrence ID: %s Schedule: %s", recurrence.getId(), schedule.id), e);
+                        }
                     }
-                } catch (ParseException e) {
-                    log.warn(String.format("Unable to parse Next Occurrence for Recurrence ID: %s Schedule: %s", recurrence.getId(), s.getId()), e);
+                });
+
+                if (recurrences == Mediasite.CollectionState.FAILED) {
+                    log.info(String.format("Could not pull recurrences for schedule %s from Mediasite - " +
+                            "skipping it for this run", schedule.id));
                 }
             }
-        }
+        });
 
-        payload.put("expectations", new Gson().toJson(expectations));
+        if (state == Mediasite.CollectionState.FAILED) {
+            log.info("Could not pull schedule from Mediasite - expectations may be incomplete for this run");
+            payload.put("partial", "true");
+        }
+        log.debug(String.format("Found %d expectations in %d schedules", count[1], count[0]));
+    }
 
-        log.info("Finished Schedule Expectation Check Scheduler Job");
+    /**
+     * Check if a recurrence is next scheduled to record within a window
+     *
+     * @param recurrence {@link Schedule.Recurrence} Recurrence
+     * @param start      {@link Date} Start of the window
+     * @param end        {@link Date} End of the window
+     * @return {@link Date} When the recurrence next records, or null if that is not within the window
+     * @throws ParseException Next Schedule Time is not a valid date
+     */
+    public static Date expectedBetween(final Schedule.Recurrence recurrence, final Date start, final Date end)
+            throws ParseException {
+        final Date recurrenceDate;
+        synchronized (ISO_DF) {
+            recurrenceDate = ISO_DF.parse(recurrence.getNextScheduleTime());
+        }
+        return recurrenceDate.after(start) && recurrenceDate.before(end) ? recurrenceDate : null;
+    }
 
-        return payload;
+    private interface ExpectationHandler {
+        void handle(RecorderExpectation expectation) throws IOException;
     }
 
+    /**
+     * The parts of a schedule that an expectation needs
+     */
+    private static class ScheduleRef {
+        private final String id;
+        private final String recorderId;
+        private final String recorderName;
+
+        ScheduleRef(String id, String recorderId, String recorderName) {
+            this.id = id;
+            this.recorderId = recorderId;
+            this.recorderName = recorderName;
+        }
+
+        /**
+         * @return {@link Recorder} Recorder that will make the recording, identified by its ID and name only.
+         * Expectation checks look the recorder up by its ID when they run.
+         */
+        Recorder getRecorder() {
+            Recorder recorder = new Recorder();
+            recorder.setId(recorderId);
+            recorder.setName(recorderName);
+            return recorder;
+        }
+    }
 }
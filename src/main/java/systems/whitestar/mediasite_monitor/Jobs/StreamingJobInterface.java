@@ -0,0 +1,31 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Job with a result that is too large to build in memory. Instead of returning the result from
+ * {@link #execute(Map)}, the large payload entry is written, as it is produced, straight to the request that sends the
+ * result to the server. The server receives the same result as it would from {@link #execute(Map)}.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public interface StreamingJobInterface extends AgentJobInterface {
+    /**
+     * @return {@link String} Name of the payload entry written by {@link #stream(Map, JsonWriter)}
+     */
+    String getStreamedField();
+
+    /**
+     * Run the job, writing the value of the streamed field as JSON. Any other results should be added to the payload,
+     * which is sent after the streamed field.
+     *
+     * @param payload {@link Map} Job Payload
+     * @param writer  {@link JsonWriter} Writer for the streamed field
+     * @throws IOException Problem writing the result
+     */
+    void stream(Map<String, String> payload, JsonWriter writer) throws IOException;
+}
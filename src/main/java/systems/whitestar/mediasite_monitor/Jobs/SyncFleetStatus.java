@@ -0,0 +1,43 @@
+package systems.whitestar.mediasite_monitor.Jobs;
+
+import com.google.gson.Gson;
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderDirectory;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderOwnership;
+import systems.whitestar.mediasite_monitor.Monitor.StatusHistory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fetch the status of every known recorder in one job, instead of one {@link SyncRecorderStatus} job per recorder.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@SuppressWarnings("unused")
+@Log4j
+public class SyncFleetStatus implements AgentJobInterface {
+    @Override public Map<String, String> execute(Map<String, String> payload) {
+        log.info("Starting Fleet Status Sync Job");
+
+        final Mediasite mediasite = Mediasite.getInstance(payload.get("tenant"));
+        Map<String, String> recorderIPs = RecorderOwnership.getInstance().filter(
+                RecorderDirectory.getInstance(mediasite.getTenant()).getRecorderIPs());
+        Map<String, Status> statusByIP = mediasite.getRecorderStatuses(recorderIPs.values());
+
+        Map<String, Status> statuses = new HashMap<>();
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, String> recorder : recorderIPs.entrySet()) {
+            Status status = statusByIP.get(recorder.getValue());
+            StatusHistory.getInstance().record(mediasite.getTenant(), recorder.getKey(), status, now);
+            statuses.put(recorder.getKey(), status != null ? status : Status.UNKNOWN);
+        }
+
+        log.info(String.format("Finished Fleet Status Sync Job - %d recorders", statuses.size()));
+        payload.put("statuses", new Gson().toJson(statuses));
+        return payload;
+    }
+}
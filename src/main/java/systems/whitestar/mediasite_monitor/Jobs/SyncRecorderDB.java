@@ -1,10 +1,15 @@
 package systems.whitestar.mediasite_monitor.Jobs;
 
 import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 import lombok.extern.log4j.Log4j;
 import systems.whitestar.mediasite_monitor.Mediasite;
 import systems.whitestar.mediasite_monitor.Models.Recorder;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -13,18 +18,60 @@ import java.util.Map;
  */
 @SuppressWarnings("unused")
 @Log4j
-public class SyncRecorderDB implements AgentJobInterface {
+public class SyncRecorderDB implements StreamingJobInterface {
+    private static Gson gson = new Gson();
+
     @Override public Map<String, String> execute(Map<String, String> payload) {
         log.info("Starting Recorder Sync Job");
 
-        Recorder[] recorders = Mediasite.getInstance().getRecorders();
-        if (recorders == null) {
+        final List<Recorder> recorders = new ArrayList<>();
+        Mediasite.CollectionState state;
+        try {
+            state = Mediasite.getInstance(payload.get("tenant")).getRecorders(page -> Collections.addAll(recorders, page));
+        } catch (IOException e) {
+            // Adding to a list does not throw
+            throw new RuntimeException(e);
+        }
+
+        if (state == Mediasite.CollectionState.FAILED) {
             log.fatal("Problem retrieving recorder list from API");
-            recorders = new Recorder[]{};
+            recorders.clear();
         }
-        log.debug(String.format("Retrieved %d recorders from MS API", recorders.length));
+        log.debug(String.format("Retrieved %d recorders from MS API", recorders.size()));
 
-        payload.put("recorders", new Gson().toJson(recorders));
+        payload.put("recorders", gson.toJson(recorders));
+        setUnchanged(payload, state);
         return payload;
     }
+
+    @Override public String getStreamedField() {
+        return "recorders";
+    }
+
+    @Override public void stream(Map<String, String> payload, JsonWriter writer) throws IOException {
+        log.info("Starting Recorder Sync Job - Streaming");
+        final int[] count = {0};
+
+        writer.beginArray();
+        Mediasite.CollectionState state = Mediasite.getInstance(payload.get("tenant")).getRecorders(page -> {
+            for (Recorder recorder : page) gson.toJson(recorder, Recorder.class, writer);
+            count[0] += page.length;
+        });
+        writer.endArray();
+
+        if (state == Mediasite.CollectionState.FAILED) {
+            log.fatal("Problem retrieving recorder list from API");
+            payload.put("partial", "true");
+        }
+        setUnchanged(payload, state);
+        log.debug(String.format("Streamed %d recorders from MS API", count[0]));
+    }
+
+    /**
+     * Let the server know if the recorder list is the same as the last time it was synced, so it can skip comparing it
+     * to its database
+     */
+    private static void setUnchanged(Map<String, String> payload, Mediasite.CollectionState state) {
+        payload.put("unchanged", Boolean.toString(state == Mediasite.CollectionState.UNCHANGED));
+    }
 }
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import lombok.extern.log4j.Log4j;
 import systems.whitestar.mediasite_monitor.Mediasite;
 import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Monitor.StatusHistory;
 
 import java.util.Map;
 
@@ -19,9 +20,12 @@ public class SyncRecorderStatus implements AgentJobInterface {
         log.info("Fetching Recorder Status for Recorder with ID: " + recorderID);
 
         Status status = null;
+        String tenant = null;
 
         try {
-            status = Mediasite.getInstance().getRecorderStatus(Mediasite.getInstance().getRecorderIP(recorderID));
+            final Mediasite mediasite = Mediasite.getInstance(payload.get("tenant"));
+            tenant = mediasite.getTenant();
+            status = mediasite.getRecorderStatus(mediasite.getRecorderIP(recorderID));
         } catch (RuntimeException e) {
             log.error("Problem retrieving recorder status from API - Invalid IP", e);
         }
@@ -29,6 +33,8 @@ public class SyncRecorderStatus implements AgentJobInterface {
         if (status == null) {
             log.error("Problem retrieving recorder status from API/Recorder");
             status = Status.UNKNOWN;
+        } else {
+            StatusHistory.getInstance().record(tenant, recorderID, status, System.currentTimeMillis());
         }
 
         log.debug(String.format("Recorder Status is \"%s\"", status));
@@ -3,25 +3,43 @@ package systems.whitestar.mediasite_monitor;
 import com.google.gson.Gson;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j;
 import org.apache.http.conn.ConnectTimeoutException;
+import systems.whitestar.mediasite_monitor.Http.CircuitBreaker;
+import systems.whitestar.mediasite_monitor.Http.CircuitBreakerRegistry;
+import systems.whitestar.mediasite_monitor.Http.Deadline;
+import systems.whitestar.mediasite_monitor.Http.HedgedTransport;
+import systems.whitestar.mediasite_monitor.Http.HttpTransport;
+import systems.whitestar.mediasite_monitor.Http.ReachabilityScanner;
+import systems.whitestar.mediasite_monitor.Http.ReplayTransport;
+import systems.whitestar.mediasite_monitor.Http.RequestGovernor;
+import systems.whitestar.mediasite_monitor.Http.SingleFlight;
+import systems.whitestar.mediasite_monitor.Http.Transport;
+import systems.whitestar.mediasite_monitor.Http.ValidatorCache;
 import systems.whitestar.mediasite_monitor.Models.AgentConfig;
+import systems.whitestar.mediasite_monitor.Models.CompactSchedule;
 import systems.whitestar.mediasite_monitor.Models.Recorder;
 import systems.whitestar.mediasite_monitor.Models.Schedule;
 import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Models.StringPool;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 /**
  * Mediasite API Methods
+ * <p>
+ * Clients are immutable once built, and every cache and request budget they hold is thread-safe, so one client can be
+ * shared by any number of concurrent jobs without locking. New credentials are applied by {@link #reload(AgentConfig)},
+ * which replaces each client with a copy that shares the original's connection pool, caches and request budgets.
  *
  * @author Tom Paulus
  * Created on 12/15/17.
@@ -29,86 +47,325 @@ import java.util.List;
 @Log4j
 public class Mediasite {
     private static final String RECORDER_WEB_SERVICE_PORT = "8090";
+    private static final int SWEEP_THREADS = 16; // Threads used to poll recorders during a fleet sweep
+    private static final int VALIDATOR_CACHE_SIZE = 5000; // Collection pages to remember validators for
+    private static final int DEFAULT_POOL_SIZE = 20; // Connections per host when the request budget is unlimited
+    private static final String DEFAULT_TENANT = "default";
+    private static final Map<String, Mediasite> instances = new ConcurrentHashMap<>();
+    private static final Gson GSON = new Gson();
+    private static volatile IntFunction<Transport> transportFactory = HttpTransport::new;
+    private static volatile Consumer<String> unauthorizedHandler;
+
     @Getter
-    private static Mediasite instance = null;
-    private String msPass;
-    private String msUser;
-    private String msAPIKey;
-    private String msURL;
+    private final String tenant;
+    private final String msURL; // Always ends with a "/"
+    private final String msAPIKey;
+    private final String authorization;
 
-    private Mediasite(String msPass, String msUser, String msAPIKey, String msURL) {
-        this.msPass = msPass;
-        this.msUser = msUser;
-        this.msAPIKey = msAPIKey;
-        this.msURL = msURL;
+    private final Transport transport;
+    private final Transport apiTransport; // Same transport, hedged if enabled
+    @Getter
+    private final RequestGovernor apiGovernor;
+    @Getter
+    private final RequestGovernor recorderGovernor;
+    @Getter
+    private final CircuitBreakerRegistry recorderBreakers;
+    private final int recorderScanTimeout;
+    private final ValidatorCache validatorCache;
+    private final StringPool stringPool; // Shared by the schedules in the validator cache
+
+    // Concurrent identical requests share a single call
+    private final SingleFlight<String, Recorder> recorderFlights = new SingleFlight<>();
+    private final SingleFlight<String, Status> statusFlights = new SingleFlight<>();
+    private final SingleFlight<String, Schedule.Recurrence> recurrenceFlights = new SingleFlight<>();
+    private final SingleFlight<String, FetchedPage> pageFlights = new SingleFlight<>();
+
+    /**
+     * @param tenant    {@link String} Tenant Name, "default" if not set
+     * @param config    {@link AgentConfig} Configuration for the tenant's Mediasite server
+     * @param transport {@link Transport} Transport to make requests with. If not set, one is made by the transport
+     *                  factory, sized to the config's request budgets.
+     */
+    @Builder
+    private Mediasite(final String tenant, @NonNull final AgentConfig config, final Transport transport) {
+        this.tenant = tenant != null ? tenant : DEFAULT_TENANT;
+        this.msURL = baseURL(config);
+        this.msAPIKey = config.getApiKey();
+        this.authorization = authorization(config);
+        this.validatorCache = new ValidatorCache(VALIDATOR_CACHE_SIZE);
+        this.stringPool = new StringPool();
+
+        this.apiGovernor = new RequestGovernor(String.format("Mediasite API (%s)", this.tenant),
+                config.getApiRequestsPerSecond(),
+                config.getApiMaxConcurrentRequests());
+        this.recorderGovernor = new RequestGovernor(String.format("Recorder Web Service (%s)", this.tenant),
+                config.getRecorderRequestsPerSecond(),
+                config.getRecorderMaxConcurrentRequests());
+        this.recorderBreakers = new CircuitBreakerRegistry(new CircuitBreaker.Policy(
+                config.getRecorderFailureThreshold(),
+                TimeUnit.SECONDS.toMillis(config.getRecorderRetryDelay()),
+                TimeUnit.SECONDS.toMillis(config.getRecorderMaxRetryDelay())));
+        this.recorderScanTimeout = config.getRecorderScanTimeout();
+
+        // Pool sized to the request budget, so a busy tenant cannot starve the others of connections
+        final int apiConnections = config.getApiMaxConcurrentRequests() > 0 ?
+                config.getApiMaxConcurrentRequests() : DEFAULT_POOL_SIZE;
+        final int recorderConnections = config.getRecorderMaxConcurrentRequests() > 0 ?
+                config.getRecorderMaxConcurrentRequests() : DEFAULT_POOL_SIZE;
+        this.transport = transport != null ? transport : transportFactory.apply(apiConnections + recorderConnections);
+        this.apiTransport = config.getApiHedgeBudget() > 0 ?
+                new HedgedTransport(this.transport, apiGovernor, config.getApiHedgeBudget()) : this.transport;
     }
 
-    public static void init(@NonNull AgentConfig config) throws InstantiationException {
-        init(config.getApiPass(),
-                config.getApiUser(),
-                config.getApiKey(),
-                config.getUrl());
+    /**
+     * Copy a client with new credentials. The copy shares the original's transport, request budgets, circuit breakers
+     * and caches.
+     *
+     * @param live   {@link Mediasite} Client to copy
+     * @param config {@link AgentConfig} Configuration with the new URL and credentials
+     */
+    private Mediasite(final Mediasite live, final AgentConfig config) {
+        this.tenant = live.tenant;
+        this.msURL = baseURL(config);
+        this.msAPIKey = config.getApiKey();
+        this.authorization = authorization(config);
+        this.validatorCache = live.validatorCache;
+        this.stringPool = live.stringPool;
+
+        this.apiGovernor = live.apiGovernor;
+        this.recorderGovernor = live.recorderGovernor;
+        this.recorderBreakers = live.recorderBreakers;
+        this.recorderScanTimeout = live.recorderScanTimeout;
+        this.transport = live.transport;
+        this.apiTransport = live.apiTransport;
     }
 
-    public static void init(String msPass, String msUser, String msAPIKey, String msURL) throws InstantiationException {
-        if (instance != null) throw new InstantiationException("Mediasite has already been initialized");
-        instance = new Mediasite(msPass, msUser, msAPIKey, msURL);
+    private static String baseURL(final AgentConfig config) {
+        if (config.getUrl() == null) throw new IllegalArgumentException("Mediasite URL is not set");
+        return config.getUrl().endsWith("/") ? config.getUrl() : config.getUrl() + '/';
     }
 
-    public Recorder[] getRecorders() {
-        final List<Recorder> recorderList = new ArrayList<>();
-        msURL = msURL.endsWith("/") ? msURL : msURL + '/';
-        String nextPageURL = msURL + "Api/v1/Recorders";
+    private static String authorization(final AgentConfig config) {
+        return "Basic " + Base64.getEncoder().encodeToString(
+                (config.getApiUser() + ":" + config.getApiPass()).getBytes(StandardCharsets.UTF_8));
+    }
 
-        do {
-            HttpResponse<JsonNode> recorderRequest;
-
-            try {
-                recorderRequest = Unirest
-                        .get(nextPageURL)
-                        .header("sfapikey", msAPIKey)
-                        .basicAuth(msUser, msPass)
-                        .asJson();
-            } catch (UnirestException e) {
-                log.error("Problem retrieving recorder list from MS API", e);
-                return null;
+    /**
+     * @param config {@link AgentConfig} Configuration for this client's Mediasite server
+     * @return {@link Mediasite} Copy of this client that uses the URL and credentials in the config, and shares this
+     * client's connection pool, caches and request budgets. This client if they have not changed.
+     */
+    public Mediasite withCredentials(@NonNull final AgentConfig config) {
+        if (baseURL(config).equals(msURL) && Objects.equals(config.getApiKey(), msAPIKey) &&
+                authorization(config).equals(authorization)) return this;
+        return new Mediasite(this, config);
+    }
+
+    /**
+     * Change how clients make their requests, for example to record or replay their traffic. Only affects clients that
+     * are built afterwards without a transport of their own.
+     *
+     * @param factory {@link IntFunction} Creates a client's transport, given the number of connections it may use
+     */
+    public static void setTransportFactory(@NonNull final IntFunction<Transport> factory) {
+        transportFactory = factory;
+    }
+
+    /**
+     * Set what happens when the Mediasite API rejects a client's credentials, such as reloading the agent's config.
+     * The handler is called on the request's thread, so it should not block.
+     *
+     * @param handler {@link Consumer} Called with the name of the tenant whose credentials were rejected
+     */
+    public static void setUnauthorizedHandler(final Consumer<String> handler) {
+        unauthorizedHandler = handler;
+    }
+
+    /**
+     * Initialize a client for the default Mediasite server in the config, and for each of the config's tenants.
+     *
+     * @param config {@link AgentConfig} Agent Configuration
+     * @throws InstantiationException Mediasite has already been initialized
+     */
+    public static synchronized void init(@NonNull AgentConfig config) throws InstantiationException {
+        if (!instances.isEmpty()) throw new InstantiationException("Mediasite has already been initialized");
+
+        instances.put(DEFAULT_TENANT, Mediasite.builder().tenant(DEFAULT_TENANT).config(config).build());
+        if (config.getTenants() != null) {
+            for (Map.Entry<String, AgentConfig> tenant : config.getTenants().entrySet()) {
+                log.info(String.format("Initializing Mediasite client for tenant \"%s\"", tenant.getKey()));
+                instances.put(tenant.getKey(),
+                        Mediasite.builder().tenant(tenant.getKey()).config(tenant.getValue()).build());
             }
+        }
+    }
 
-            if (recorderRequest.getStatus() != 200) {
-                log.error(String.format("Problem retrieving recorder list from MS API. HTTP Status: %d",
-                        recorderRequest.getStatus()));
-                log.info(recorderRequest.getBody());
-                return null;
+    public static synchronized void init(String msPass, String msUser, String msAPIKey, String msURL) throws InstantiationException {
+        AgentConfig config = new AgentConfig();
+        config.setApiPass(msPass);
+        config.setApiUser(msUser);
+        config.setApiKey(msAPIKey);
+        config.setUrl(msURL);
+        init(config);
+    }
+
+    /**
+     * Apply a new configuration to the running clients. Each client whose URL or credentials have changed is replaced,
+     * in one step, by a copy that keeps its connection pool, caches and request budgets; requests that are already
+     * running finish with the old credentials. Clients are created for tenants that are new to the config. Changes to
+     * request budgets, and removed tenants, only take effect when the agent is restarted.
+     *
+     * @param config {@link AgentConfig} Agent Configuration
+     * @return Number of clients that were replaced or created
+     */
+    public static synchronized int reload(@NonNull final AgentConfig config) {
+        final Map<String, AgentConfig> configs = new HashMap<>();
+        configs.put(DEFAULT_TENANT, config);
+        if (config.getTenants() != null) configs.putAll(config.getTenants());
+
+        int updated = 0;
+        for (Map.Entry<String, AgentConfig> tenant : configs.entrySet()) {
+            final Mediasite live = instances.get(tenant.getKey());
+            final Mediasite reloaded = live != null ? live.withCredentials(tenant.getValue()) :
+                    Mediasite.builder().tenant(tenant.getKey()).config(tenant.getValue()).build();
+            if (reloaded == live) continue;
+
+            log.info(String.format("%s Mediasite client for tenant \"%s\"",
+                    live != null ? "Updated credentials of" : "Initialized", tenant.getKey()));
+            instances.put(tenant.getKey(), reloaded);
+            updated++;
+        }
+
+        for (String tenant : instances.keySet()) {
+            if (!configs.containsKey(tenant))
+                log.warn(String.format("Tenant \"%s\" is no longer configured - it will be removed when the agent " +
+                        "is restarted", tenant));
+        }
+        return updated;
+    }
+
+    /**
+     * @return {@link Mediasite} Client for the default Mediasite server, or null if Mediasite has not been initialized
+     */
+    public static Mediasite getInstance() {
+        return instances.get(DEFAULT_TENANT);
+    }
+
+    /**
+     * Get the client for a tenant, usually from the "tenant" entry of a job payload.
+     *
+     * @param tenant {@link String} Tenant Name. Null or empty for the default Mediasite server.
+     * @return {@link Mediasite} Client for the tenant's Mediasite server
+     * @throws IllegalArgumentException No tenant with that name is configured
+     */
+    public static Mediasite getInstance(final String tenant) {
+        if (tenant == null || tenant.isEmpty()) return getInstance();
+
+        Mediasite instance = instances.get(tenant);
+        if (instance == null) throw new IllegalArgumentException(String.format("Unknown tenant \"%s\"", tenant));
+        return instance;
+    }
+
+    /**
+     * @return {@link Collection} Clients for every Mediasite server the agent serves
+     */
+    public static Collection<Mediasite> getInstances() {
+        return Collections.unmodifiableCollection(instances.values());
+    }
+
+    /**
+     * Make an authenticated GET request, once the governor for the target host allows it.
+     *
+     * @param governor {@link RequestGovernor} Request budget for the host being called
+     * @param url      {@link String} Request URL
+     * @return {@link Transport.Response} Response
+     * @throws IOException Request failed, or was interrupted while waiting for a permit
+     */
+    private Transport.Response get(final RequestGovernor governor, final String url) throws IOException {
+        return get(governor, url, Collections.emptyMap());
+    }
+
+    /**
+     * Make an authenticated GET request with additional headers, once the governor for the target host allows it.
+     *
+     * @param governor {@link RequestGovernor} Request budget for the host being called
+     * @param url      {@link String} Request URL
+     * @param headers  {@link Map} Additional Request Headers
+     * @return {@link Transport.Response} Response
+     * @throws IOException Request failed, or was interrupted while waiting for a permit
+     */
+    private Transport.Response get(final RequestGovernor governor, final String url,
+                                       final Map<String, String> headers) throws IOException {
+        final Map<String, String> requestHeaders = new HashMap<>(headers);
+        requestHeaders.put("sfapikey", msAPIKey);
+        requestHeaders.put("Authorization", authorization);
+
+        try (RequestGovernor.Permit permit = governor.acquire()) {
+            log.debug(String.format("Waited %d ms for %s permit - %s", permit.getWaited(), governor.getName(), url));
+
+            // Mediasite API reads may be hedged; recorder requests are not
+            final Transport.Response response = (governor == apiGovernor ? apiTransport : transport)
+                    .get(url, requestHeaders);
+
+            final Consumer<String> handler = unauthorizedHandler;
+            if (response.getStatus() == 401 && governor == apiGovernor && handler != null) {
+                log.warn(String.format("Mediasite API rejected the credentials for tenant \"%s\"", tenant));
+                handler.accept(tenant);
             }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a request permit");
+        }
+    }
 
-            Gson gson = new Gson();
-            //noinspection unchecked
-            RecorderResponse response = gson.fromJson(recorderRequest.getBody().toString(), RecorderResponse.class);
-            nextPageURL = response.nextLink;
-            Collections.addAll(recorderList, response.value);
-        } while (nextPageURL != null && !nextPageURL.isEmpty());
+    public Recorder[] getRecorders() {
+        final List<Recorder> recorderList = new ArrayList<>();
+
+        try {
+            if (getRecorders(page -> Collections.addAll(recorderList, page)) == CollectionState.FAILED) return null;
+        } catch (IOException e) {
+            // Adding to a list does not throw
+            throw new RuntimeException(e);
+        }
 
         log.debug(String.format("Got %d recorders from API", recorderList.size()));
 
         return recorderList.toArray(new Recorder[]{});
     }
 
+    /**
+     * Walk the recorder list one page at a time, without holding the whole list in memory.
+     *
+     * @param handler {@link PageHandler} Called with each page of recorders, in order
+     * @return {@link CollectionState} If the list was retrieved, and if it has changed since it was last retrieved
+     * @throws IOException The handler could not process a page
+     */
+    public CollectionState getRecorders(final PageHandler<Recorder> handler) throws IOException {
+        return getPages(msURL + "Api/v1/Recorders", RecorderResponse.class, handler, "recorder list");
+    }
+
     public Recorder getRecorder(final String recorderId) {
-        msURL = msURL.endsWith("/") ? msURL : msURL + '/';
-        HttpResponse<String> recorderInfoRequest;
+        return recorderFlights.execute(recorderId, () -> fetchRecorder(recorderId));
+    }
+
+    private Recorder fetchRecorder(final String recorderId) {
+        Transport.Response recorderInfoRequest;
 
         try {
-            recorderInfoRequest = Unirest
-                    .get(msURL + "Api/v1/Recorders('" + recorderId + "')")
-                    .header("sfapikey", msAPIKey)
-                    .basicAuth(msUser, msPass)
-                    .asString();
-        } catch (UnirestException e) {
+            recorderInfoRequest = get(apiGovernor, msURL + "Api/v1/Recorders('" + recorderId + "')");
+        } catch (IOException e) {
             log.error("Problem retrieving recorder info from MS API - ID: " + recorderId, e);
             return null;
         }
 
-        return new Gson().fromJson(recorderInfoRequest.getBody(), Recorder.class);
+        if (recorderInfoRequest.getStatus() != 200) {
+            log.error(String.format("Problem retrieving recorder info from MS API - ID: %s. HTTP Status: %d",
+                    recorderId, recorderInfoRequest.getStatus()));
+            return null;
+        }
+
+        return GSON.fromJson(recorderInfoRequest.getBody(), Recorder.class);
     }
 
     public String getRecorderIP(final String recorderId) {
@@ -116,104 +373,145 @@ public class Mediasite {
     }
 
     public Status getRecorderStatus(final String recorderIP) {
-        HttpResponse<String> recorderInfoRequest;
+        return statusFlights.execute(recorderIP, () -> fetchRecorderStatus(recorderIP));
+    }
+
+    private Status fetchRecorderStatus(final String recorderIP) {
+        Transport.Response recorderInfoRequest;
+
+        // Skip recorders that are known to be offline, until their breaker is due to probe them again
+        CircuitBreaker breaker = recorderBreakers.get(recorderIP);
+        if (!breaker.allowRequest()) {
+            log.debug(String.format("Circuit Breaker for Recorder at IP %s is open - reporting as unavailable", recorderIP));
+            return Status.UNAVAILABLE;
+        }
 
         try {
-            recorderInfoRequest = Unirest
-                    .get("http://" + recorderIP + ":" +
-                            RECORDER_WEB_SERVICE_PORT +
-                            "/recorderwebapi/v1/action/service/RecorderStateJson")
-                    .header("sfapikey", msAPIKey)
-                    .basicAuth(msUser, msPass)
-                    .asString();
-        } catch (UnirestException e) {
-            if (e.getCause() instanceof ConnectTimeoutException) {
+            recorderInfoRequest = get(recorderGovernor, "http://" + recorderIP + ":" +
+                    RECORDER_WEB_SERVICE_PORT +
+                    "/recorderwebapi/v1/action/service/RecorderStateJson");
+        } catch (IOException e) {
+            if (e instanceof ConnectTimeoutException) {
                 log.warn(String.format("Could not connect to Recorder at IP %s - Connection Timeout", recorderIP));
             }
+            // Running out of time for the job is not the recorder's fault
+            if (!Thread.currentThread().isInterrupted() && !Deadline.isExpired()) breaker.recordFailure();
 
             log.error("Problem retrieving recorder status from Recorder - IP: " + recorderIP, e);
             return null;
         }
 
-        Gson gson = new Gson();
-        RecorderStatusResponse recorderStatus = gson.fromJson(recorderInfoRequest.getBody().substring(
-                recorderInfoRequest.getBody().indexOf('{'),
-                recorderInfoRequest.getBody().lastIndexOf('}') + 1),
+        final String body = recorderInfoRequest.getBody();
+        final int start = body != null ? body.indexOf('{') : -1;
+        final int end = body != null ? body.lastIndexOf('}') : -1;
+        if (recorderInfoRequest.getStatus() != 200 || start < 0 || end < start) {
+            // The recorder answered, but its web service is not working
+            breaker.recordFailure();
+            log.error(String.format("Problem retrieving recorder status from Recorder - IP: %s. HTTP Status: %d",
+                    recorderIP, recorderInfoRequest.getStatus()));
+            return null;
+        }
+        breaker.recordSuccess();
+
+        RecorderStatusResponse recorderStatus = GSON.fromJson(body.substring(start, end + 1),
                 RecorderStatusResponse.class);
+        return recorderStatus != null ? Status.getByName(recorderStatus.recorderStateString) : null;
+    }
+
+    /**
+     * Get the status of many recorders at once. A non-blocking reachability scan of the recorders' web service port
+     * runs first, so only the recorders that are accepting connections are polled over HTTP. Recorders that do not
+     * answer the scan are reported as unavailable right away. When replaying recorded traffic there is nothing to
+     * connect to, so the scan is skipped and every recorder is polled.
+     *
+     * @param recorderIPs {@link Collection} Recorder IP Addresses
+     * @return {@link Map} Recorder Status by IP Address. Null if the status could not be retrieved.
+     */
+    public Map<String, Status> getRecorderStatuses(final Collection<String> recorderIPs) {
+        final Map<String, Status> statuses = new ConcurrentHashMap<>();
+        final Set<String> reachable;
+        try {
+            if (transport instanceof ReplayTransport) reachable = new HashSet<>(recorderIPs);
+            else reachable = ReachabilityScanner.scan(recorderIPs,
+                    Integer.parseInt(RECORDER_WEB_SERVICE_PORT),
+                    Deadline.bound(recorderScanTimeout));
+        } catch (Deadline.ExceededException e) {
+            log.warn("Job deadline passed before recorder statuses could be retrieved");
+            return new HashMap<>();
+        }
+
+        final Map<String, Future<Status>> requests = new HashMap<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(reachable.size(), SWEEP_THREADS)));
+        try {
+            for (String ip : recorderIPs) {
+                if (reachable.contains(ip))
+                    requests.put(ip, executor.submit(Deadline.wrap(() -> getRecorderStatus(ip))));
+                else statuses.put(ip, Status.UNAVAILABLE);
+            }
 
-        return Status.getByName(recorderStatus.recorderStateString);
+            for (Map.Entry<String, Future<Status>> request : requests.entrySet()) {
+                try {
+                    Status status = request.getValue().get(Math.max(0, Deadline.remaining()), TimeUnit.MILLISECONDS);
+                    if (status != null) statuses.put(request.getKey(), status);
+                } catch (ExecutionException e) {
+                    log.error("Problem retrieving recorder status from Recorder - IP: " + request.getKey(), e.getCause());
+                } catch (TimeoutException e) {
+                    log.warn("Job deadline passed before status was retrieved from Recorder - IP: " + request.getKey());
+                }
+            }
+        } catch (InterruptedException e) {
+            log.warn("Interrupted while retrieving recorder statuses", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        log.debug(String.format("Got status for %d of %d recorders - %d unreachable",
+                statuses.size(), recorderIPs.size(), recorderIPs.size() - reachable.size()));
+        return new HashMap<>(statuses);
     }
 
     public Schedule[] getSchedule() {
         final List<Schedule> scheduleList = new ArrayList<>();
-        msURL = msURL.endsWith("/") ? msURL : msURL + '/';
-        String nextPageURL = msURL + "Api/v1/Schedules";
-
-        do {
-            HttpResponse<JsonNode> scheduleRequest;
-
-            try {
-                scheduleRequest = Unirest
-                        .get(nextPageURL)
-                        .header("sfapikey", msAPIKey)
-                        .basicAuth(msUser, msPass)
-                        .asJson();
-            } catch (UnirestException e) {
-                log.error("Problem retrieving schedule from MS API", e);
-                return null;
-            }
 
-            if (scheduleRequest.getStatus() != 200) {
-                log.error(String.format("Problem retrieving schedule from MS API. HTTP Status: %d",
-                        scheduleRequest.getStatus()));
-                log.info(scheduleRequest.getBody());
+        try {
+            if (getSchedules(page -> Collections.addAll(scheduleList, page)) == CollectionState.FAILED) {
                 return null;
             }
-
-            Gson gson = new Gson();
-            //noinspection unchecked
-            ScheduleResponse response = gson.fromJson(scheduleRequest.getBody().toString(), ScheduleResponse.class);
-            nextPageURL = response.nextLink;
-            Collections.addAll(scheduleList, response.value);
-        } while (nextPageURL != null && !nextPageURL.isEmpty());
+        } catch (IOException e) {
+            // Adding to a list does not throw
+            throw new RuntimeException(e);
+        }
 
         log.debug(String.format("Got %d recorders from API", scheduleList.size()));
 
         return scheduleList.toArray(new Schedule[]{});
     }
 
+    /**
+     * Retrieve the schedule list one page at a time, so the whole list is never held in memory.
+     *
+     * @param handler {@link PageHandler} Called with each page of schedules, in order
+     * @return {@link CollectionState} If the schedule list was retrieved, and if it has changed
+     * @throws IOException The handler could not process a page
+     */
+    public CollectionState getSchedules(final PageHandler<Schedule> handler) throws IOException {
+        return getPages(msURL + "Api/v1/Schedules", ScheduleResponse.class, handler, "schedule");
+    }
+
     public Schedule.Recurrence[] getRecurrences(final Schedule schedule) {
         final List<Schedule.Recurrence> recurrenceList = new ArrayList<>();
 
-        String nextPageURL = schedule.getRecurrencesOdataNavigationLinkUrl();
-
-        do {
-            HttpResponse<JsonNode> recurenceRequest;
-
-            try {
-                recurenceRequest = Unirest
-                        .get(nextPageURL)
-                        .header("sfapikey", msAPIKey)
-                        .basicAuth(msUser, msPass)
-                        .asJson();
-            } catch (UnirestException e) {
-                log.error(String.format("Problem retrieving Recurrences for Schedule \"%s\" from MS API", schedule.getId()), e);
-                return null;
-            }
-
-            if (recurenceRequest.getStatus() != 200) {
-                log.error(String.format("Problem retrieving Recurrences from MS API. HTTP Status: %d",
-                        recurenceRequest.getStatus()));
-                log.info(recurenceRequest.getBody());
+        try {
+            if (getRecurrences(schedule.getId(), page -> Collections.addAll(recurrenceList, page))
+                    == CollectionState.FAILED) {
                 return null;
             }
-
-            Gson gson = new Gson();
-            //noinspection unchecked
-            RecurrenceResponse response = gson.fromJson(recurenceRequest.getBody().toString(), RecurrenceResponse.class);
-            nextPageURL = response.nextLink;
-            Collections.addAll(recurrenceList, response.value);
-        } while (nextPageURL != null && !nextPageURL.isEmpty());
+        } catch (IOException e) {
+            // Adding to a list does not throw
+            throw new RuntimeException(e);
+        }
 
         log.debug(String.format("Got %d recurrences for Schedule \"%s\" from API", recurrenceList.size(), schedule.getId()));
 
@@ -223,49 +521,207 @@ public class Mediasite {
         return recurrenceList.toArray(new Schedule.Recurrence[]{});
     }
 
+    /**
+     * Retrieve a schedule's recurrences one page at a time. The recurrences are not linked to their schedule.
+     *
+     * @param scheduleId {@link String} Schedule ID
+     * @param handler    {@link PageHandler} Called with each page of recurrences, in order
+     * @return {@link CollectionState} If the recurrences were retrieved, and if they have changed
+     * @throws IOException The handler could not process a page
+     */
+    public CollectionState getRecurrences(final String scheduleId, final PageHandler<Schedule.Recurrence> handler)
+            throws IOException {
+        return getPages(msURL + "Api/v1/Schedules('" + scheduleId + "')/Recurrences", RecurrenceResponse.class,
+                handler, String.format("Recurrences for Schedule \"%s\"", scheduleId));
+    }
+
+    /**
+     * Walk a paged OData collection. Each page is requested conditionally, using the validators from the last time it
+     * was retrieved; if the server reports that the page has not been modified, the previously decoded page is reused.
+     *
+     * @param firstPageURL {@link String} URL of the first page of the collection
+     * @param pageType     {@link Class} Response Type for a page of the collection
+     * @param handler      {@link PageHandler} Called with each page of the collection, in order
+     * @param description  {@link String} What is being retrieved, for logs
+     * @param <T>          Collection Item Type
+     * @return {@link CollectionState} If the collection was retrieved, and if it has changed
+     * @throws IOException The handler could not process a page
+     */
+    private <T> CollectionState getPages(final String firstPageURL, final Class<? extends ODataPage<T>> pageType,
+                                         final PageHandler<T> handler, final String description) throws IOException {
+        String nextPageURL = firstPageURL;
+        boolean changed = false;
+
+        do {
+            final String pageURL = nextPageURL;
+            final FetchedPage page = pageFlights.execute(pageURL, () -> fetchPage(pageURL, pageType, description));
+            if (page == null) return CollectionState.FAILED;
+
+            // Each URL is always fetched as the same page type, so this only checks what is already true
+            final ODataPage<T> response = pageType.cast(page.response);
+            changed |= page.changed;
+            nextPageURL = response.nextLink;
+            handler.handle(response.value);
+        } while (nextPageURL != null && !nextPageURL.isEmpty());
+
+        return changed ? CollectionState.CHANGED : CollectionState.UNCHANGED;
+    }
+
+    /**
+     * Retrieve a single page of an OData collection, conditionally if it has been retrieved before.
+     *
+     * @return {@link FetchedPage} Decoded Page, or null if it could not be retrieved
+     */
+    private FetchedPage fetchPage(final String pageURL, final Class<? extends ODataPage<?>> pageType,
+                                  final String description) {
+        final ValidatorCache.Entry cached = validatorCache.get(pageURL);
+        final Map<String, String> headers = new HashMap<>();
+        if (cached != null && cached.getEtag() != null) headers.put("If-None-Match", cached.getEtag());
+        if (cached != null && cached.getLastModified() != null) headers.put("If-Modified-Since", cached.getLastModified());
+
+        Transport.Response pageRequest;
+
+        try {
+            pageRequest = get(apiGovernor, pageURL, headers);
+        } catch (IOException e) {
+            log.error(String.format("Problem retrieving %s from MS API", description), e);
+            return null;
+        }
+
+        if (pageRequest.getStatus() == 304 && cached != null) {
+            log.debug("Page not modified, using cached page - " + pageURL);
+            return new FetchedPage(fromCacheable(cached.getValue()), false);
+        } else if (pageRequest.getStatus() == 200) {
+            ODataPage<?> response = GSON.fromJson(pageRequest.getBody(), pageType);
+            validatorCache.put(pageURL,
+                    pageRequest.getHeader("ETag"),
+                    pageRequest.getHeader("Last-Modified"),
+                    toCacheable(response));
+            return new FetchedPage(response, true);
+        }
+
+        log.error(String.format("Problem retrieving %s from MS API. HTTP Status: %d",
+                description, pageRequest.getStatus()));
+        log.info(pageRequest.getBody());
+        return null;
+    }
+
+
+    /**
+     * Schedule and recurrence pages are kept in the validator cache in compact form, since the cache can hold the whole
+     * schedule catalogue.
+     *
+     * @param page {@link ODataPage} Decoded Page
+     * @return {@link Object} Page, as it should be kept in the validator cache
+     */
+    private Object toCacheable(final ODataPage<?> page) {
+        if (page instanceof ScheduleResponse)
+            return new CompactPage(page.nextLink, CompactSchedule.compact(((ScheduleResponse) page).value, stringPool),
+                    null);
+        if (page instanceof RecurrenceResponse)
+            return new CompactPage(page.nextLink, null,
+                    CompactSchedule.Recurrence.compact(((RecurrenceResponse) page).value, stringPool));
+        return page;
+    }
+
+    /**
+     * @param cached {@link Object} Page, as it was kept in the validator cache
+     * @return {@link ODataPage} Decoded Page
+     */
+    private ODataPage<?> fromCacheable(final Object cached) {
+        if (!(cached instanceof CompactPage)) return (ODataPage<?>) cached;
+
+        final CompactPage compact = (CompactPage) cached;
+        final ODataPage<?> page;
+        if (compact.schedules != null) {
+            ScheduleResponse schedules = new ScheduleResponse();
+            schedules.value = CompactSchedule.expand(compact.schedules, stringPool);
+            page = schedules;
+        } else {
+            RecurrenceResponse recurrences = new RecurrenceResponse();
+            recurrences.value = CompactSchedule.Recurrence.expand(compact.recurrences, stringPool);
+            page = recurrences;
+        }
+        page.nextLink = compact.nextLink;
+        return page;
+    }
+
     public Schedule.Recurrence getRecurence(final String scheduleId, final Integer recurrenceId) {
-        msURL = msURL.endsWith("/") ? msURL : msURL + '/';
-        HttpResponse<String> recorderInfoRequest;
+        return recurrenceFlights.execute(scheduleId + '/' + recurrenceId, () -> fetchRecurrence(scheduleId, recurrenceId));
+    }
+
+    private Schedule.Recurrence fetchRecurrence(final String scheduleId, final Integer recurrenceId) {
+        Transport.Response recorderInfoRequest;
 
         try {
-            recorderInfoRequest = Unirest
-                    .get(msURL + "Api/v1/Schedules('" + scheduleId + "')/Recurrences(" + recurrenceId + ")")
-                    .header("sfapikey", msAPIKey)
-                    .basicAuth(msUser, msPass)
-                    .asString();
-        } catch (UnirestException e) {
+            recorderInfoRequest = get(apiGovernor, msURL + "Api/v1/Schedules('" + scheduleId + "')/Recurrences(" + recurrenceId + ")");
+        } catch (IOException e) {
             log.error("Problem retrieving recurence info from MS API - SID: " + scheduleId + "\tRID: " + recurrenceId, e);
             return null;
         }
 
-        return new Gson().fromJson(recorderInfoRequest.getBody(), Schedule.Recurrence.class);
+        if (recorderInfoRequest.getStatus() != 200) {
+            log.error(String.format("Problem retrieving recurence info from MS API - SID: %s\tRID: %d. HTTP Status: %d",
+                    scheduleId, recurrenceId, recorderInfoRequest.getStatus()));
+            return null;
+        }
+
+        return GSON.fromJson(recorderInfoRequest.getBody(), Schedule.Recurrence.class);
     }
 
-    @SuppressWarnings("unused")
-    private static class ScheduleResponse {
-        @SerializedName("odata.nextLink")
-        @Expose
-        public String nextLink;
-        @Expose
-        private Schedule[] value;
+    /**
+     * Receives a paged collection from the Mediasite API one page at a time
+     *
+     * @param <T> Collection Item Type
+     */
+    public interface PageHandler<T> {
+        void handle(T[] page) throws IOException;
     }
 
-    @SuppressWarnings("unused")
-    private static class RecurrenceResponse {
-        @SerializedName("odata.nextLink")
-        @Expose
-        public String nextLink;
-        @Expose
-        private Schedule.Recurrence[] value;
+    public enum CollectionState {
+        CHANGED,
+        UNCHANGED,  // Every page was "Not Modified" since it was last retrieved
+        FAILED
     }
 
     @SuppressWarnings("unused")
-    private static class RecorderResponse {
+    static class ODataPage<T> {
         @SerializedName("odata.nextLink")
         @Expose
         public String nextLink;
         @Expose
-        private Recorder[] value;
+        T[] value;
+    }
+
+    private static class FetchedPage {
+        final ODataPage<?> response;
+        final boolean changed;
+
+        FetchedPage(ODataPage<?> response, boolean changed) {
+            this.response = response;
+            this.changed = changed;
+        }
+    }
+
+    private static class CompactPage {
+        final String nextLink;
+        final CompactSchedule[] schedules;
+        final CompactSchedule.Recurrence[] recurrences;
+
+        CompactPage(String nextLink, CompactSchedule[] schedules, CompactSchedule.Recurrence[] recurrences) {
+            this.nextLink = nextLink;
+            this.schedules = schedules;
+            this.recurrences = recurrences;
+        }
+    }
+
+    static class ScheduleResponse extends ODataPage<Schedule> {
+    }
+
+    static class RecurrenceResponse extends ODataPage<Schedule.Recurrence> {
+    }
+
+    static class RecorderResponse extends ODataPage<Recorder> {
     }
 
     @SuppressWarnings("unused")
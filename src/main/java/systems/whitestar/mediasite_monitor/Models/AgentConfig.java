@@ -2,6 +2,8 @@ package systems.whitestar.mediasite_monitor.Models;
 
 import lombok.Data;
 
+import java.util.Map;
+
 /**
  * @author Tom Paulus
  * Created on 12/15/17.
@@ -12,4 +14,56 @@ public class AgentConfig {
     private String apiKey;
     private String apiUser;
     private String apiPass;
+
+    // Request budgets for the Mediasite API host, and separately for the recorders' web service (port 8090).
+    // Defaults apply when the server does not specify them.
+    private double apiRequestsPerSecond = 10;
+    private int apiMaxConcurrentRequests = 4;
+    private double recorderRequestsPerSecond = 50;
+    private int recorderMaxConcurrentRequests = 16;
+
+    // Fraction of Mediasite API requests that may be sent a second time when they have not been answered by the API's
+    // recent 95th percentile response time, to cut the time lost to slow pages. 0 to disable.
+    private double apiHedgeBudget = 0.05;
+
+    // Circuit Breaker for unreachable recorders - open after N consecutive failures, then probe on a doubling delay
+    private int recorderFailureThreshold = 2;
+    private int recorderRetryDelay = 30;        // Seconds
+    private int recorderMaxRetryDelay = 900;    // Seconds
+
+    // How long, in milliseconds, fleet sweeps wait for recorders to accept a connection before skipping them
+    private int recorderScanTimeout = 500;
+
+    // How often, in seconds, the agent polls every recorder on its own and reports status changes. 0 to disable.
+    private int statusMonitorInterval = 0;
+
+    // Poll a recorder every N seconds instead, from shortly before until shortly after each scheduled start and stop of
+    // its recordings, when its status is expected to change. 0 to poll at the status monitor interval all the time.
+    private int statusMonitorDenseInterval = 0;
+    private int statusMonitorDenseWindow = 300; // Seconds
+
+    // Measure how late recorders start their scheduled recordings, by polling each recorder every N seconds from
+    // shortly before until shortly after each scheduled start. 0 to disable.
+    private int startLagSampleInterval = 0;
+    private int startLagWindowBefore = 120;     // Seconds
+    private int startLagWindowAfter = 600;      // Seconds
+
+    // How often, in seconds, the agent fetches its configuration from the server again, to pick up rotated credentials.
+    // 0 to only reload when the server asks, or when the Mediasite API rejects the credentials.
+    private int configReloadInterval = 0;
+
+    // Share recorder polling and expectation checks between all registered agents, instead of every agent doing all
+    private boolean shardRecorders = false;
+
+    // How long, in seconds, a job's result is reused for an identical job, by Job Class Simple Name. 0 to disable.
+    // Job types that are not listed use the agent's defaults.
+    private Map<String, Integer> jobResultFreshness;
+
+    // How long, in seconds, each job type may run before it is cancelled, by Job Class Simple Name. Job types that are
+    // not listed use the agent's defaults. A job's "deadline" payload entry overrides both.
+    private Map<String, Integer> jobDeadlines;
+
+    // Additional Mediasite servers served by this agent, by tenant name. Each has its own credentials, connection pool,
+    // caches and request budgets. Jobs pick one with the "tenant" payload entry; the settings above are the default.
+    private Map<String, AgentConfig> tenants;
 }
@@ -0,0 +1,374 @@
+package systems.whitestar.mediasite_monitor.Models;
+
+import java.util.List;
+
+/**
+ * Memory-efficient copy of a {@link Schedule}, for keeping the schedule catalogue in memory between syncs. Compared to
+ * the decoded model:
+ * <ul>
+ * <li>repeated Strings (folder, player and recorder details) are shared through a {@link StringPool}</li>
+ * <li>fields with a small set of values are stored as codes, and the Boolean flags are packed into one int</li>
+ * <li>navigation links are derived from the schedule's OData ID when they are needed, instead of stored</li>
+ * <li>recurrences do not point back to their schedule</li>
+ * </ul>
+ * Use {@link #toSchedule(StringPool)} with the same pool to get the schedule back.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public final class CompactSchedule {
+    static final String[] NAVIGATION_LINKS = {"Presenters", "Recurrences", "Tags", "Recorder", "Player", "Folder",
+            "SlideContent", "OnDemandContent", "BroadcastContent", "PodcastContent", "PublishToGoContent",
+            "OcrContent", "CaptionContent", "VideoPodcastContent", "ExternalPublishingContent", "Modules"};
+
+    // Boolean flags, two bits each - see Flags
+    private static final int IS_LIVE = 0;
+    private static final int IS_UPLOAD_AUTOMATIC = 1;
+    private static final int CREATE_PRESENTATION = 2;
+    private static final int LOAD_PRESENTATION = 3;
+    private static final int AUTO_START = 4;
+    private static final int AUTO_STOP = 5;
+    private static final int NOTIFY_PRESENTER = 6;
+    private static final int DELETE_INACTIVE = 7;
+    private static final int IS_FORUM_ENABLED = 8;
+    private static final int IS_ON_DEMAND = 9;
+    private static final int IS_POLLS_ENABLED = 10;
+    private static final int REVIEW_EDIT_APPROVE_ENABLED = 11;
+    private static final int REPLACE_ACL_WITH_POLICY = 12;
+    private static final int USE_ADAPTIVE_CAPTURE = 13;
+
+    private final String odataId;
+    private final int links;                // Bit per NAVIGATION_LINKS entry the schedule has
+    private final String[] linkOverrides;   // Links that cannot be derived from the OData ID, usually null
+    private final String id;
+    private final String name;
+    private final short titleType;
+    private final String folderId;
+    private final Object scheduleTemplateId;
+    private final int flags;
+    private final String recorderWebServiceUrl;
+    private final Object recorderEncryptionKey;
+    private final String deviceId;
+    private final String recorderId;
+    private final String recorderName;
+    private final String recorderUsername;
+    private final String recorderPassword;
+    private final Integer advanceCreationTime;
+    private final Integer advanceLoadTimeInSeconds;
+    private final String receipientsEmailAddresses;
+    private final String sendersEmail;
+    private final Object cDNPublishingPoint;
+    private final Integer nextNumberInSchedule;
+    private final short timeZoneRegistryKey;
+    private final String lastModified;
+    private final String description;
+    private final String playerId;
+    private final List<Object> policy;
+    private final List<Object> customFieldValues;
+
+    private CompactSchedule(final Schedule schedule, final StringPool pool) {
+        odataId = schedule.getOdataId();
+
+        final String[] scheduleLinks = getNavigationLinks(schedule);
+        int present = 0;
+        String[] overrides = null;
+        for (int i = 0; i < NAVIGATION_LINKS.length; i++) {
+            if (scheduleLinks[i] == null) continue;
+            present |= 1 << i;
+            if (!scheduleLinks[i].equals(deriveLink(odataId, i))) {
+                if (overrides == null) overrides = new String[NAVIGATION_LINKS.length];
+                overrides[i] = scheduleLinks[i];
+            }
+        }
+        links = present;
+        linkOverrides = overrides;
+
+        id = schedule.getId();
+        name = pool.intern(schedule.getName());
+        titleType = pool.code(schedule.getTitleType());
+        folderId = pool.intern(schedule.getFolderId());
+        scheduleTemplateId = schedule.getScheduleTemplateId();
+        flags = Flags.pack(schedule.getIsLive(), schedule.getIsUploadAutomatic(), schedule.getCreatePresentation(),
+                schedule.getLoadPresentation(), schedule.getAutoStart(), schedule.getAutoStop(),
+                schedule.getNotifyPresenter(), schedule.getDeleteInactive(), schedule.getIsForumEnabled(),
+                schedule.getIsOnDemand(), schedule.getIsPollsEnabled(), schedule.getReviewEditApproveEnabled(),
+                schedule.getReplaceAclWithPolicy(), schedule.getUseAdaptiveCapture());
+        recorderWebServiceUrl = pool.intern(schedule.getRecorderWebServiceUrl());
+        recorderEncryptionKey = schedule.getRecorderEncryptionKey();
+        deviceId = pool.intern(schedule.getDeviceId());
+        recorderId = pool.intern(schedule.getRecorderId());
+        recorderName = pool.intern(schedule.getRecorderName());
+        recorderUsername = pool.intern(schedule.getRecorderUsername());
+        recorderPassword = pool.intern(schedule.getRecorderPassword());
+        advanceCreationTime = schedule.getAdvanceCreationTime();
+        advanceLoadTimeInSeconds = schedule.getAdvanceLoadTimeInSeconds();
+        receipientsEmailAddresses = pool.intern(schedule.getReceipientsEmailAddresses());
+        sendersEmail = pool.intern(schedule.getSendersEmail());
+        cDNPublishingPoint = schedule.getCDNPublishingPoint();
+        nextNumberInSchedule = schedule.getNextNumberInSchedule();
+        timeZoneRegistryKey = pool.code(schedule.getTimeZoneRegistryKey());
+        lastModified = pool.intern(schedule.getLastModified());
+        description = pool.intern(schedule.getDescription());
+        playerId = pool.intern(schedule.getPlayerId());
+        policy = schedule.getPolicy();
+        customFieldValues = schedule.getCustomFieldValues();
+    }
+
+    /**
+     * @param schedules {@link Schedule[]} Schedules
+     * @param pool      {@link StringPool} Pool shared by the cached schedules
+     * @return {@link CompactSchedule[]} Compact copies of the schedules
+     */
+    public static CompactSchedule[] compact(final Schedule[] schedules, final StringPool pool) {
+        if (schedules == null) return null;
+        CompactSchedule[] compact = new CompactSchedule[schedules.length];
+        for (int i = 0; i < schedules.length; i++) compact[i] = new CompactSchedule(schedules[i], pool);
+        return compact;
+    }
+
+    /**
+     * @param schedules {@link CompactSchedule[]} Compact Schedules
+     * @param pool      {@link StringPool} Pool the schedules were compacted with
+     * @return {@link Schedule[]} New copies of the schedules
+     */
+    public static Schedule[] expand(final CompactSchedule[] schedules, final StringPool pool) {
+        if (schedules == null) return null;
+        Schedule[] expanded = new Schedule[schedules.length];
+        for (int i = 0; i < schedules.length; i++) expanded[i] = schedules[i].toSchedule(pool);
+        return expanded;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRecorderId() {
+        return recorderId;
+    }
+
+    /**
+     * @param link {@link String} Navigation Link Name, like "Recurrences"
+     * @return {@link String} Navigation Link URL, or null if the schedule does not have the link
+     */
+    public String getNavigationLink(final String link) {
+        for (int i = 0; i < NAVIGATION_LINKS.length; i++) {
+            if (NAVIGATION_LINKS[i].equals(link)) return getNavigationLink(i);
+        }
+        return null;
+    }
+
+    private String getNavigationLink(final int link) {
+        if ((links & (1 << link)) == 0) return null;
+        if (linkOverrides != null && linkOverrides[link] != null) return linkOverrides[link];
+        return deriveLink(odataId, link);
+    }
+
+    /**
+     * @param pool {@link StringPool} Pool the schedule was compacted with
+     * @return {@link Schedule} New copy of the schedule
+     */
+    public Schedule toSchedule(final StringPool pool) {
+        Schedule schedule = new Schedule();
+        schedule.setOdataId(odataId);
+        schedule.setPresentersOdataNavigationLinkUrl(getNavigationLink(0));
+        schedule.setRecurrencesOdataNavigationLinkUrl(getNavigationLink(1));
+        schedule.setTagsOdataNavigationLinkUrl(getNavigationLink(2));
+        schedule.setRecorderOdataNavigationLinkUrl(getNavigationLink(3));
+        schedule.setPlayerOdataNavigationLinkUrl(getNavigationLink(4));
+        schedule.setFolderOdataNavigationLinkUrl(getNavigationLink(5));
+        schedule.setSlideContentOdataNavigationLinkUrl(getNavigationLink(6));
+        schedule.setOnDemandContentOdataNavigationLinkUrl(getNavigationLink(7));
+        schedule.setBroadcastContentOdataNavigationLinkUrl(getNavigationLink(8));
+        schedule.setPodcastContentOdataNavigationLinkUrl(getNavigationLink(9));
+        schedule.setPublishToGoContentOdataNavigationLinkUrl(getNavigationLink(10));
+        schedule.setOcrContentOdataNavigationLinkUrl(getNavigationLink(11));
+        schedule.setCaptionContentOdataNavigationLinkUrl(getNavigationLink(12));
+        schedule.setVideoPodcastContentOdataNavigationLinkUrl(getNavigationLink(13));
+        schedule.setExternalPublishingContentOdataNavigationLinkUrl(getNavigationLink(14));
+        schedule.setModulesOdataNavigationLinkUrl(getNavigationLink(15));
+
+        schedule.setId(id);
+        schedule.setName(name);
+        schedule.setTitleType(pool.decode(titleType));
+        schedule.setFolderId(folderId);
+        schedule.setScheduleTemplateId(scheduleTemplateId);
+        schedule.setIsLive(Flags.get(flags, IS_LIVE));
+        schedule.setIsUploadAutomatic(Flags.get(flags, IS_UPLOAD_AUTOMATIC));
+        schedule.setRecorderWebServiceUrl(recorderWebServiceUrl);
+        schedule.setRecorderEncryptionKey(recorderEncryptionKey);
+        schedule.setDeviceId(deviceId);
+        schedule.setRecorderId(recorderId);
+        schedule.setRecorderName(recorderName);
+        schedule.setRecorderUsername(recorderUsername);
+        schedule.setRecorderPassword(recorderPassword);
+        schedule.setAdvanceCreationTime(advanceCreationTime);
+        schedule.setAdvanceLoadTimeInSeconds(advanceLoadTimeInSeconds);
+        schedule.setReceipientsEmailAddresses(receipientsEmailAddresses);
+        schedule.setCreatePresentation(Flags.get(flags, CREATE_PRESENTATION));
+        schedule.setLoadPresentation(Flags.get(flags, LOAD_PRESENTATION));
+        schedule.setAutoStart(Flags.get(flags, AUTO_START));
+        schedule.setAutoStop(Flags.get(flags, AUTO_STOP));
+        schedule.setSendersEmail(sendersEmail);
+        schedule.setCDNPublishingPoint(cDNPublishingPoint);
+        schedule.setNextNumberInSchedule(nextNumberInSchedule);
+        schedule.setNotifyPresenter(Flags.get(flags, NOTIFY_PRESENTER));
+        schedule.setTimeZoneRegistryKey(pool.decode(timeZoneRegistryKey));
+        schedule.setLastModified(lastModified);
+        schedule.setDeleteInactive(Flags.get(flags, DELETE_INACTIVE));
+        schedule.setDescription(description);
+        schedule.setIsForumEnabled(Flags.get(flags, IS_FORUM_ENABLED));
+        schedule.setIsOnDemand(Flags.get(flags, IS_ON_DEMAND));
+        schedule.setIsPollsEnabled(Flags.get(flags, IS_POLLS_ENABLED));
+        schedule.setReviewEditApproveEnabled(Flags.get(flags, REVIEW_EDIT_APPROVE_ENABLED));
+        schedule.setReplaceAclWithPolicy(Flags.get(flags, REPLACE_ACL_WITH_POLICY));
+        schedule.setUseAdaptiveCapture(Flags.get(flags, USE_ADAPTIVE_CAPTURE));
+        schedule.setPlayerId(playerId);
+        schedule.setPolicy(policy);
+        schedule.setCustomFieldValues(customFieldValues);
+        return schedule;
+    }
+
+    private static String[] getNavigationLinks(final Schedule schedule) {
+        return new String[]{schedule.getPresentersOdataNavigationLinkUrl(),
+                schedule.getRecurrencesOdataNavigationLinkUrl(),
+                schedule.getTagsOdataNavigationLinkUrl(),
+                schedule.getRecorderOdataNavigationLinkUrl(),
+                schedule.getPlayerOdataNavigationLinkUrl(),
+                schedule.getFolderOdataNavigationLinkUrl(),
+                schedule.getSlideContentOdataNavigationLinkUrl(),
+                schedule.getOnDemandContentOdataNavigationLinkUrl(),
+                schedule.getBroadcastContentOdataNavigationLinkUrl(),
+                schedule.getPodcastContentOdataNavigationLinkUrl(),
+                schedule.getPublishToGoContentOdataNavigationLinkUrl(),
+                schedule.getOcrContentOdataNavigationLinkUrl(),
+                schedule.getCaptionContentOdataNavigationLinkUrl(),
+                schedule.getVideoPodcastContentOdataNavigationLinkUrl(),
+                schedule.getExternalPublishingContentOdataNavigationLinkUrl(),
+                schedule.getModulesOdataNavigationLinkUrl()};
+    }
+
+    private static String deriveLink(final String odataId, final int link) {
+        return odataId != null ? odataId + '/' + NAVIGATION_LINKS[link] : null;
+    }
+
+    /**
+     * Memory-efficient copy of a {@link Schedule.Recurrence}, without the link to its schedule
+     */
+    public static final class Recurrence {
+        private static final int WEEK_DAY_ONLY = 0;
+        private static final int EXCLUDE_HOLIDAYS = 1;
+
+        private final String odataId;
+        private final Integer id;
+        private final String mediasiteId;
+        private final Integer recordDuration;
+        private final String startRecordDateTime;
+        private final String endRecordDateTime;
+        private final short recurrencePattern;
+        private final String nextScheduleTime;
+        private final Integer recurrencePatternType;
+        private final Integer recurrenceFrequency;
+        private final int flags;
+        private final short daysOfTheWeek;
+        private final short weekOfTheMonth;
+        private final Integer dayOfTheMonth;
+        private final short monthOfTheYear;
+        private final List<Object> excludeDateRangeList;
+
+        private Recurrence(final Schedule.Recurrence recurrence, final StringPool pool) {
+            odataId = recurrence.getOdataId();
+            id = recurrence.getId();
+            mediasiteId = pool.intern(recurrence.getMediasiteId());
+            recordDuration = recurrence.getRecordDuration();
+            startRecordDateTime = pool.intern(recurrence.getStartRecordDateTime());
+            endRecordDateTime = pool.intern(recurrence.getEndRecordDateTime());
+            recurrencePattern = pool.code(recurrence.getRecurrencePattern());
+            nextScheduleTime = pool.intern(recurrence.getNextScheduleTime());
+            recurrencePatternType = recurrence.getRecurrencePatternType();
+            recurrenceFrequency = recurrence.getRecurrenceFrequency();
+            flags = Flags.pack(recurrence.getWeekDayOnly(), recurrence.getExcludeHolidays());
+            daysOfTheWeek = pool.code(recurrence.getDaysOfTheWeek());
+            weekOfTheMonth = pool.code(recurrence.getWeekOfTheMonth());
+            dayOfTheMonth = recurrence.getDayOfTheMonth();
+            monthOfTheYear = pool.code(recurrence.getMonthOfTheYear());
+            excludeDateRangeList = recurrence.getExcludeDateRangeList();
+        }
+
+        /**
+         * @param recurrences {@link Schedule.Recurrence[]} Recurrences
+         * @param pool        {@link StringPool} Pool shared by the cached recurrences
+         * @return {@link Recurrence[]} Compact copies of the recurrences
+         */
+        public static Recurrence[] compact(final Schedule.Recurrence[] recurrences, final StringPool pool) {
+            if (recurrences == null) return null;
+            Recurrence[] compact = new Recurrence[recurrences.length];
+            for (int i = 0; i < recurrences.length; i++) compact[i] = new Recurrence(recurrences[i], pool);
+            return compact;
+        }
+
+        /**
+         * @param recurrences {@link Recurrence[]} Compact Recurrences
+         * @param pool        {@link StringPool} Pool the recurrences were compacted with
+         * @return {@link Schedule.Recurrence[]} New copies of the recurrences, not linked to their schedule
+         */
+        public static Schedule.Recurrence[] expand(final Recurrence[] recurrences, final StringPool pool) {
+            if (recurrences == null) return null;
+            Schedule.Recurrence[] expanded = new Schedule.Recurrence[recurrences.length];
+            for (int i = 0; i < recurrences.length; i++) expanded[i] = recurrences[i].toRecurrence(pool);
+            return expanded;
+        }
+
+        /**
+         * @param pool {@link StringPool} Pool the recurrence was compacted with
+         * @return {@link Schedule.Recurrence} New copy of the recurrence, not linked to its schedule
+         */
+        public Schedule.Recurrence toRecurrence(final StringPool pool) {
+            Schedule.Recurrence recurrence = new Schedule.Recurrence();
+            recurrence.setOdataId(odataId);
+            recurrence.setId(id);
+            recurrence.setMediasiteId(mediasiteId);
+            recurrence.setRecordDuration(recordDuration);
+            recurrence.setStartRecordDateTime(startRecordDateTime);
+            recurrence.setEndRecordDateTime(endRecordDateTime);
+            recurrence.setRecurrencePattern(pool.decode(recurrencePattern));
+            recurrence.setNextScheduleTime(nextScheduleTime);
+            recurrence.setRecurrencePatternType(recurrencePatternType);
+            recurrence.setRecurrenceFrequency(recurrenceFrequency);
+            recurrence.setWeekDayOnly(Flags.get(flags, WEEK_DAY_ONLY));
+            recurrence.setDaysOfTheWeek(pool.decode(daysOfTheWeek));
+            recurrence.setWeekOfTheMonth(pool.decode(weekOfTheMonth));
+            recurrence.setDayOfTheMonth(dayOfTheMonth);
+            recurrence.setMonthOfTheYear(pool.decode(monthOfTheYear));
+            recurrence.setExcludeHolidays(Flags.get(flags, EXCLUDE_HOLIDAYS));
+            recurrence.setExcludeDateRangeList(excludeDateRangeList);
+            return recurrence;
+        }
+    }
+
+    /**
+     * Packs nullable Booleans into an int, two bits each: 0 for null, 1 for false and 2 for true
+     */
+    private static final class Flags {
+        private Flags() {
+        }
+
+        static int pack(final Boolean... values) {
+            int flags = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) flags |= (values[i] ? 2 : 1) << (i * 2);
+            }
+            return flags;
+        }
+
+        static Boolean get(final int flags, final int flag) {
+            switch ((flags >> (flag * 2)) & 3) {
+                case 1:
+                    return false;
+                case 2:
+                    return true;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package systems.whitestar.mediasite_monitor.Models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A change in a recorder's status, observed by the agent's status monitor
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusChange {
+    private String tenant;
+    private String recorderId;
+    private Status previous;    // Null if this is the first time the agent has seen the recorder
+    private Status status;
+    private long time;
+}
@@ -0,0 +1,72 @@
+package systems.whitestar.mediasite_monitor.Models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares one copy of each repeated String between cached models, such as folder, player and recorder IDs, which
+ * appear on hundreds of schedules each. Values with only a handful of possible values, like a schedule's title type
+ * or a recurrence's days of the week, are given integer codes instead, so a model only needs a short to store them.
+ * <p>
+ * Interned values are forgotten once the pool is full, which only costs later duplicates their sharing. Codes are
+ * never forgotten, so only fields with a small, fixed set of values should be coded.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class StringPool {
+    private static final int MAX_INTERNED = 100_000;
+    private static final int MAX_CODES = Short.MAX_VALUE;
+
+    private final Map<String, String> interned = new ConcurrentHashMap<>();
+    private final Map<String, Short> codes = new ConcurrentHashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * @param value {@link String} Value
+     * @return {@link String} Shared copy of the value
+     */
+    public String intern(final String value) {
+        if (value == null) return null;
+        if (interned.size() >= MAX_INTERNED) interned.clear();
+
+        String shared = interned.putIfAbsent(value, value);
+        return shared != null ? shared : value;
+    }
+
+    /**
+     * @param value {@link String} Value
+     * @return Code for the value, -1 for null
+     * @throws IllegalStateException There are already too many coded values
+     */
+    public short code(final String value) {
+        if (value == null) return -1;
+
+        Short code = codes.get(value);
+        if (code != null) return code;
+
+        synchronized (values) {
+            code = codes.get(value);
+            if (code != null) return code;
+            if (values.size() >= MAX_CODES) throw new IllegalStateException("String pool has too many coded values");
+
+            code = (short) values.size();
+            values.add(value);
+            codes.put(value, code);
+            return code;
+        }
+    }
+
+    /**
+     * @param code Code from {@link #code(String)}
+     * @return {@link String} Value for the code, null for -1
+     */
+    public String decode(final short code) {
+        if (code < 0) return null;
+        synchronized (values) {
+            return values.get(code);
+        }
+    }
+}
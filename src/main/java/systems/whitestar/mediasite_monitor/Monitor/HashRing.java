@@ -0,0 +1,56 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Consistent Hash Ring. Each member is placed on the ring at many points (virtual nodes) so keys are spread evenly, and
+ * when a member joins or leaves only the keys next to its points change owner.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class HashRing {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final Set<String> members;
+
+    public HashRing(final Collection<String> members) {
+        this.members = Collections.unmodifiableSet(new TreeSet<>(members));
+        for (String member : this.members) {
+            for (int i = 0; i < VIRTUAL_NODES; i++) ring.put(hash(member + "#" + i), member);
+        }
+    }
+
+    /**
+     * @param key {@link String} Key, such as a Recorder ID
+     * @return {@link String} Member that owns the key, or null if the ring is empty
+     */
+    public String getOwner(final String key) {
+        if (ring.isEmpty()) return null;
+
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    private static long hash(final String key) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support MD5
+            throw new RuntimeException(e);
+        }
+
+        long hash = 0;
+        for (int i = 0; i < 8; i++) hash = (hash << 8) | (digest[i] & 0xFF);
+        return hash;
+    }
+}
@@ -0,0 +1,118 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides how often each recorder should be polled: densely in a window around the scheduled starts and stops of its
+ * recordings, when its status is expected to change, and sparsely the rest of the time. The plan is built from the
+ * tenant's {@link RecordingCalendar}. Until the calendar has been loaded, every recorder is polled sparsely.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class PollingPlanner {
+    private static final Map<String, PollingPlanner> instances = new ConcurrentHashMap<>();
+
+    private final String tenant;
+    private List<UpcomingRecordings.Recording> plannedFrom = null;
+    private Map<String, long[]> windows = Collections.emptyMap(); // Sorted dense window bounds by Recorder ID
+    private long windowLength = -1;
+
+    private PollingPlanner(String tenant) {
+        this.tenant = tenant;
+    }
+
+    /**
+     * @param tenant {@link String} Tenant Name
+     * @return {@link PollingPlanner} Planner for the tenant's recorders
+     */
+    public static PollingPlanner getInstance(final String tenant) {
+        return instances.computeIfAbsent(tenant, PollingPlanner::new);
+    }
+
+    /**
+     * Find which recorders are due to be polled
+     *
+     * @param lastPolled     {@link Map} When each recorder was last polled, in milliseconds since the epoch, by ID
+     * @param recorderIds    {@link Collection} Recorders to consider
+     * @param now            Current time, in milliseconds since the epoch
+     * @param denseInterval  Seconds between polls around scheduled starts and stops
+     * @param sparseInterval Seconds between polls the rest of the time
+     * @param denseWindow    Seconds before and after each scheduled start and stop that a recorder is polled densely
+     * @return {@link Set} IDs of the recorders that are due
+     */
+    public Set<String> due(final Map<String, Long> lastPolled, final Collection<String> recorderIds, final long now,
+                           final int denseInterval, final int sparseInterval, final int denseWindow) {
+        final Map<String, long[]> windows = plan(TimeUnit.SECONDS.toMillis(denseWindow));
+        // Allow for the monitor's own timing jitter, so a recorder is not skipped for being a few ms early
+        final long slack = TimeUnit.SECONDS.toMillis(denseInterval) / 4;
+        final long dense = TimeUnit.SECONDS.toMillis(denseInterval) - slack;
+        final long sparse = TimeUnit.SECONDS.toMillis(sparseInterval) - slack;
+
+        Set<String> due = new HashSet<>();
+        for (String recorderId : recorderIds) {
+            Long last = lastPolled.get(recorderId);
+            long interval = isDense(windows.get(recorderId), now) ? dense : sparse;
+            if (last == null || now - last >= interval) due.add(recorderId);
+        }
+        return due;
+    }
+
+    private static boolean isDense(final long[] bounds, final long now) {
+        if (bounds == null) return false;
+
+        // Find the last window that opens at or before now - the starts are in the first half of the bounds
+        int i = Arrays.binarySearch(bounds, 0, bounds.length / 2, now);
+        int index = i >= 0 ? i : -i - 2;
+        return index >= 0 && now <= bounds[bounds.length / 2 + index];
+    }
+
+    /**
+     * @return {@link Map} Dense windows by recorder, rebuilt if the calendar has changed
+     */
+    private synchronized Map<String, long[]> plan(final long window) {
+        final List<UpcomingRecordings.Recording> recordings = RecordingCalendar.getInstance(tenant).getRecordingsNow();
+        if (recordings == null || (recordings == plannedFrom && window == windowLength)) return windows;
+
+        Map<String, List<long[]>> byRecorder = new HashMap<>();
+        for (UpcomingRecordings.Recording recording : recordings) {
+            List<long[]> recorderWindows = byRecorder.computeIfAbsent(recording.getRecorderId(), k -> new ArrayList<>());
+            recorderWindows.add(new long[]{recording.getStart() - window, recording.getStart() + window});
+            if (recording.getDuration() > 0)
+                recorderWindows.add(new long[]{recording.getEnd() - window, recording.getEnd() + window});
+        }
+
+        Map<String, long[]> planned = new HashMap<>();
+        for (Map.Entry<String, List<long[]>> recorder : byRecorder.entrySet())
+            planned.put(recorder.getKey(), merge(recorder.getValue()));
+
+        windows = planned;
+        plannedFrom = recordings;
+        windowLength = window;
+        return windows;
+    }
+
+    /**
+     * @param windows {@link List} Windows, as (from, to) pairs
+     * @return Merged windows, as the sorted window starts followed by their ends
+     */
+    private static long[] merge(final List<long[]> windows) {
+        windows.sort(Comparator.comparingLong(w -> w[0]));
+
+        List<long[]> merged = new ArrayList<>();
+        for (long[] window : windows) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && window[0] <= last[1]) last[1] = Math.max(last[1], window[1]);
+            else merged.add(new long[]{window[0], window[1]});
+        }
+
+        long[] bounds = new long[merged.size() * 2];
+        for (int i = 0; i < merged.size(); i++) {
+            bounds[i] = merged.get(i)[0];
+            bounds[merged.size() + i] = merged.get(i)[1];
+        }
+        return bounds;
+    }
+}
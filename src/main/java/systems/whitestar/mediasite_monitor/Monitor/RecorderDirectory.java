@@ -0,0 +1,80 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Models.Recorder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached directory of the known recorders and their IP Addresses, so fleet-wide jobs do not need to walk the full
+ * recorder list from the Mediasite API every time they run. Each tenant has its own directory.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class RecorderDirectory {
+    private static final long REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+
+    private static final Map<String, RecorderDirectory> instances = new ConcurrentHashMap<>();
+
+    private final String tenant;
+    private volatile Map<String, String> recorderIPs = Collections.emptyMap();
+    private volatile long refreshed = 0;
+
+    private RecorderDirectory(String tenant) {
+        this.tenant = tenant;
+    }
+
+    /**
+     * @param tenant {@link String} Tenant Name, as returned by {@link Mediasite#getTenant()}
+     * @return {@link RecorderDirectory} Directory for the tenant's Mediasite server
+     */
+    public static RecorderDirectory getInstance(final String tenant) {
+        return instances.computeIfAbsent(tenant, RecorderDirectory::new);
+    }
+
+    /**
+     * Get the IP Address of every known recorder, refreshing the directory first if it is out of date.
+     *
+     * @return {@link Map} Recorder IP Addresses, by Recorder ID
+     */
+    public Map<String, String> getRecorderIPs() {
+        if (System.currentTimeMillis() - refreshed > REFRESH_INTERVAL) refresh();
+        return recorderIPs;
+    }
+
+    /**
+     * Reload the directory from the Mediasite API. If the recorder list cannot be retrieved the previous directory is
+     * kept.
+     *
+     * @return If the directory was updated
+     */
+    public synchronized boolean refresh() {
+        Recorder[] recorders = Mediasite.getInstance(tenant).getRecorders();
+        if (recorders == null) {
+            log.warn(String.format("Could not refresh recorder directory for tenant \"%s\" - using previous directory", tenant));
+            return false;
+        }
+
+        Map<String, String> ips = new HashMap<>();
+        for (Recorder recorder : recorders) {
+            try {
+                ips.put(recorder.getId(), recorder.getIP());
+            } catch (RuntimeException e) {
+                log.debug(String.format("Skipping Recorder %s - %s", recorder.getId(), e.getMessage()));
+            }
+        }
+
+        recorderIPs = Collections.unmodifiableMap(ips);
+        refreshed = System.currentTimeMillis();
+        log.info(String.format("Recorder directory for tenant \"%s\" refreshed - %d recorders with IP Addresses",
+                tenant, ips.size()));
+        return true;
+    }
+}
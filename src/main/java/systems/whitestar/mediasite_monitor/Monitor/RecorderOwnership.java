@@ -0,0 +1,103 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.Getter;
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Agent;
+import systems.whitestar.mediasite_monitor.Register;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides which recorders this agent is responsible for, when recorder sharding is enabled. Recorders are spread over
+ * the registered agents with a {@link HashRing}, so adding agents adds polling capacity. When an agent joins or leaves,
+ * the recorders that change owner are kept by their previous owner as well for a grace period, so no recorder goes
+ * unmonitored during the handoff.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class RecorderOwnership {
+    private static final long REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long HANDOFF_GRACE = TimeUnit.MINUTES.toMillis(5);
+
+    @Getter
+    private static final RecorderOwnership instance = new RecorderOwnership();
+
+    private volatile boolean enabled = false;
+    private volatile HashRing ring = null;
+    private volatile HashRing previousRing = null;
+    private volatile long handoffEnds = 0;
+    private volatile long refreshed = 0;
+
+    private RecorderOwnership() {
+    }
+
+    /**
+     * @param enabled If recorders should be shared between agents. When disabled, every agent owns every recorder.
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check if this agent is responsible for a recorder
+     *
+     * @param recorderId {@link String} Recorder ID
+     * @return If the recorder should be polled and checked by this agent
+     */
+    public boolean owns(final String recorderId) {
+        if (!enabled || recorderId == null) return true;
+        if (System.currentTimeMillis() - refreshed > REFRESH_INTERVAL) refresh();
+
+        final String self = Agent.getAgent().getId();
+        final HashRing current = ring;
+        final HashRing previous = previousRing;
+
+        if (current == null || self.equals(current.getOwner(recorderId))) return true;
+        return previous != null && System.currentTimeMillis() < handoffEnds && self.equals(previous.getOwner(recorderId));
+    }
+
+    /**
+     * Filter a map keyed by Recorder ID to the recorders owned by this agent
+     *
+     * @param recorders {@link Map} Values by Recorder ID
+     * @param <V>       Value Type
+     * @return {@link Map} Entries for recorders owned by this agent
+     */
+    public <V> Map<String, V> filter(final Map<String, V> recorders) {
+        if (!enabled) return recorders;
+
+        Map<String, V> owned = new HashMap<>();
+        for (Map.Entry<String, V> recorder : recorders.entrySet()) {
+            if (owns(recorder.getKey())) owned.put(recorder.getKey(), recorder.getValue());
+        }
+        log.debug(String.format("Agent owns %d of %d recorders", owned.size(), recorders.size()));
+        return owned;
+    }
+
+    /**
+     * Reload the list of registered agents from the server, and rebuild the ring if it changed. If the list cannot be
+     * retrieved the current ring is kept.
+     */
+    public synchronized void refresh() {
+        if (System.currentTimeMillis() - refreshed <= REFRESH_INTERVAL) return;
+        refreshed = System.currentTimeMillis();
+
+        List<String> agents = Register.getPeers();
+        if (agents == null) {
+            log.warn("Could not get registered agents from server - keeping current recorder assignments");
+            return;
+        }
+
+        Set<String> members = new TreeSet<>(agents);
+        members.add(Agent.getAgent().getId());
+        if (ring != null && ring.getMembers().equals(members)) return;
+
+        log.info(String.format("Agent membership changed - sharing recorders between %d agents", members.size()));
+        previousRing = ring;
+        handoffEnds = System.currentTimeMillis() + HANDOFF_GRACE;
+        ring = new HashRing(members);
+    }
+}
@@ -0,0 +1,118 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Mediasite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cached list of the recordings scheduled for the owned recorders over the next day, so that monitors that plan around
+ * scheduled recordings share one walk of the schedule an hour. Mediasite only reports when each recurrence next
+ * records, so recordings that have already started are carried over from the previous walk until they have ended.
+ * Each tenant has its own calendar.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class RecordingCalendar {
+    private static final long REFRESH_INTERVAL = TimeUnit.HOURS.toMillis(1);
+    private static final long KEEP_ENDED = TimeUnit.HOURS.toMillis(1);  // How long ended recordings are kept
+    private static final long LOOK_AHEAD = TimeUnit.HOURS.toMillis(24);
+
+    private static final Map<String, RecordingCalendar> instances = new ConcurrentHashMap<>();
+    private static final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "RecordingCalendar");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String tenant;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile List<UpcomingRecordings.Recording> recordings = null;
+    private volatile long refreshed = 0;
+
+    private RecordingCalendar(String tenant) {
+        this.tenant = tenant;
+    }
+
+    /**
+     * @param tenant {@link String} Tenant Name, as returned by {@link Mediasite#getTenant()}
+     * @return {@link RecordingCalendar} Calendar for the tenant's Mediasite server
+     */
+    public static RecordingCalendar getInstance(final String tenant) {
+        return instances.computeIfAbsent(tenant, RecordingCalendar::new);
+    }
+
+    /**
+     * Get the scheduled recordings, refreshing the calendar first if it is out of date.
+     *
+     * @return {@link List} Scheduled Recordings, or null if the schedule has never been retrieved
+     */
+    public List<UpcomingRecordings.Recording> getRecordings() {
+        if (isStale()) refresh();
+        return recordings;
+    }
+
+    /**
+     * Get the scheduled recordings without waiting. If the calendar is out of date, it is refreshed in the background.
+     *
+     * @return {@link List} Scheduled Recordings, or null if the schedule has not been retrieved yet
+     */
+    public List<UpcomingRecordings.Recording> getRecordingsNow() {
+        if (isStale() && refreshing.compareAndSet(false, true)) {
+            refresher.submit(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+        return recordings;
+    }
+
+    /**
+     * Reload the calendar from the Mediasite API. If the schedule cannot be retrieved the previous calendar is kept.
+     *
+     * @return If the calendar was updated
+     */
+    public synchronized boolean refresh() {
+        if (!isStale()) return true; // Refreshed while waiting
+
+        final long now = System.currentTimeMillis();
+        List<UpcomingRecordings.Recording> found = UpcomingRecordings.find(Mediasite.getInstance(tenant),
+                new Date(now), new Date(now + LOOK_AHEAD));
+        if (found == null) {
+            log.warn(String.format("Could not refresh recording calendar for tenant \"%s\" - using previous calendar",
+                    tenant));
+            return false;
+        }
+
+        List<UpcomingRecordings.Recording> calendar = new ArrayList<>(found);
+        if (recordings != null) {
+            for (UpcomingRecordings.Recording recording : recordings) {
+                if (recording.getStart() < now && recording.getEnd() > now - KEEP_ENDED) calendar.add(recording);
+            }
+        }
+
+        recordings = Collections.unmodifiableList(calendar);
+        refreshed = now;
+        log.info(String.format("Recording calendar for tenant \"%s\" refreshed - %d scheduled recordings",
+                tenant, calendar.size()));
+        return true;
+    }
+
+    private boolean isStale() {
+        return System.currentTimeMillis() - refreshed > REFRESH_INTERVAL;
+    }
+}
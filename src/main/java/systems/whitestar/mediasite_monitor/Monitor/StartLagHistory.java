@@ -0,0 +1,154 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * How late recorders started their scheduled recordings. Each measurement is the time between a recording's scheduled
+ * start and the moment its recorder was first seen recording. The most recent measurements are kept, and can be
+ * summarised as a lag distribution per recorder or per schedule.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class StartLagHistory {
+    private static final int MAX_MEASUREMENTS = 10000;
+
+    @Getter
+    private static final StartLagHistory instance = new StartLagHistory();
+
+    private final Deque<Measurement> measurements = new ArrayDeque<>();
+
+    StartLagHistory() {
+    }
+
+    public synchronized void record(final Measurement measurement) {
+        measurements.addLast(measurement);
+        if (measurements.size() > MAX_MEASUREMENTS) measurements.removeFirst();
+    }
+
+    /**
+     * Get the measurements for recordings scheduled within a time range
+     *
+     * @param tenant     {@link String} Tenant Name
+     * @param recorderId {@link String} Only include this recorder, or null for all
+     * @param scheduleId {@link String} Only include this schedule, or null for all
+     * @param from       Start of the range, in milliseconds since the epoch
+     * @param to         End of the range, in milliseconds since the epoch
+     * @return {@link List} Measurements, oldest first
+     */
+    public synchronized List<Measurement> query(final String tenant, final String recorderId, final String scheduleId,
+                                                final long from, final long to) {
+        List<Measurement> matching = new ArrayList<>();
+        for (Measurement measurement : measurements) {
+            if (!Objects.equals(tenant, measurement.getTenant())) continue;
+            if (measurement.getScheduled() < from || measurement.getScheduled() > to) continue;
+            if (recorderId != null && !recorderId.equals(measurement.getRecorderId())) continue;
+            if (scheduleId != null && !scheduleId.equals(measurement.getScheduleId())) continue;
+            matching.add(measurement);
+        }
+        return matching;
+    }
+
+    /**
+     * @param measurements {@link List} Measurements
+     * @param key          {@link Function} What to group the measurements by, such as the recorder or schedule ID
+     * @return {@link List} Lag Distribution for each group
+     */
+    public static List<Summary> summarise(final List<Measurement> measurements,
+                                          final Function<Measurement, String> key) {
+        Map<String, List<Measurement>> groups = new TreeMap<>();
+        for (Measurement measurement : measurements)
+            groups.computeIfAbsent(key.apply(measurement), k -> new ArrayList<>()).add(measurement);
+
+        List<Summary> summaries = new ArrayList<>(groups.size());
+        for (Map.Entry<String, List<Measurement>> group : groups.entrySet())
+            summaries.add(Summary.of(group.getKey(), group.getValue()));
+        return summaries;
+    }
+
+    public enum Outcome {
+        STARTED,            // Recorder was seen to start recording
+        MISSED,             // Recorder did not start recording within the measurement window
+        ALREADY_RECORDING   // Recorder was recording for the whole window, so when this recording started is unknown
+    }
+
+    @Data
+    public static class Measurement {
+        private final String tenant;
+        private final String recorderId;
+        private final String scheduleId;
+        private final Integer recurrenceId;
+        private final long scheduled;   // Scheduled start, in milliseconds since the epoch
+        private final Long started;     // When the recorder was first seen recording, in milliseconds since the epoch
+        private final Long resolution;  // Milliseconds since the last sample that was not recording
+        private final Long lag;         // Milliseconds after its scheduled start the recording started, negative if early
+        private final Outcome outcome;
+
+        public Measurement(String tenant, String recorderId, String scheduleId, Integer recurrenceId, long scheduled,
+                           Long started, Long resolution, Outcome outcome) {
+            this.tenant = tenant;
+            this.recorderId = recorderId;
+            this.scheduleId = scheduleId;
+            this.recurrenceId = recurrenceId;
+            this.scheduled = scheduled;
+            this.started = started;
+            this.resolution = resolution;
+            this.lag = started != null ? started - scheduled : null;
+            this.outcome = outcome;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Summary {
+        private String key;
+        private int count;
+        private int started;
+        private int missed;
+        private int alreadyRecording;
+        private Long mean;  // Lag in milliseconds, of the recordings that were seen to start
+        private Long p50;
+        private Long p90;
+        private Long p99;
+        private Long max;
+
+        static Summary of(final String key, final List<Measurement> measurements) {
+            int missed = 0;
+            int alreadyRecording = 0;
+            long[] lags = new long[measurements.size()];
+            int started = 0;
+            long total = 0;
+
+            for (Measurement measurement : measurements) {
+                if (measurement.getOutcome() == Outcome.MISSED) missed++;
+                else if (measurement.getOutcome() == Outcome.ALREADY_RECORDING) alreadyRecording++;
+                else if (measurement.getLag() != null) {
+                    lags[started++] = measurement.getLag();
+                    total += measurement.getLag();
+                }
+            }
+
+            if (started == 0)
+                return new Summary(key, measurements.size(), 0, missed, alreadyRecording, null, null, null, null, null);
+
+            lags = Arrays.copyOf(lags, started);
+            Arrays.sort(lags);
+            return new Summary(key, measurements.size(), started, missed, alreadyRecording,
+                    total / started,
+                    percentile(lags, 50),
+                    percentile(lags, 90),
+                    percentile(lags, 99),
+                    lags[lags.length - 1]);
+        }
+
+        private static long percentile(final long[] sorted, final double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import systems.whitestar.mediasite_monitor.Models.Status;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact per-recorder status history. Only status transitions are stored, each as an (epoch second, state code) pair
+ * in a fixed-size ring of primitive arrays, so a recorder's history costs a few KB no matter how often it is polled.
+ * Once a ring is full the oldest transitions are overwritten. Histories are kept per tenant, as recorders on different
+ * Mediasite servers may share an ID.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class StatusHistory {
+    private static final int DEFAULT_CAPACITY = 256; // Transitions kept per recorder
+
+    @Getter
+    private static final StatusHistory instance = new StatusHistory(DEFAULT_CAPACITY);
+
+    private final int capacity;
+    private final Map<String, Map<String, Ring>> tenants = new ConcurrentHashMap<>(); // By Tenant, Recorder ID
+
+    StatusHistory(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Record an observed recorder status
+     *
+     * @param tenant     {@link String} Tenant the recorder belongs to
+     * @param recorderId {@link String} Recorder ID
+     * @param status     {@link Status} Observed Status
+     * @param time       When the status was observed, in milliseconds since the epoch
+     */
+    public void record(final String tenant, final String recorderId, final Status status, final long time) {
+        if (recorderId == null || status == null) return;
+        tenants.computeIfAbsent(tenant, t -> new ConcurrentHashMap<>())
+                .computeIfAbsent(recorderId, id -> new Ring(capacity))
+                .record((int) (time / 1000), status);
+    }
+
+    /**
+     * @param tenant {@link String} Tenant Name
+     * @return {@link Set} The tenant's recorders with a history
+     */
+    public Set<String> getRecorderIds(final String tenant) {
+        Map<String, Ring> recorders = tenants.get(tenant);
+        return recorders != null ? Collections.unmodifiableSet(recorders.keySet()) : Collections.emptySet();
+    }
+
+    /**
+     * Get the status transitions of a recorder within a time range. The first sample is the status the recorder was in
+     * at the start of the range, if it is known.
+     *
+     * @param tenant     {@link String} Tenant the recorder belongs to
+     * @param recorderId {@link String} Recorder ID
+     * @param from       Start of the range, in seconds since the epoch
+     * @param to         End of the range, in seconds since the epoch
+     * @return {@link List} Samples, oldest first
+     */
+    public List<Sample> query(final String tenant, final String recorderId, final long from, final long to) {
+        Ring ring = getRing(tenant, recorderId);
+        return ring == null ? Collections.emptyList() : ring.query(from, to);
+    }
+
+    /**
+     * Summarise a recorder's history over a time range.
+     *
+     * @param tenant        {@link String} Tenant the recorder belongs to
+     * @param recorderId    {@link String} Recorder ID
+     * @param from          Start of the range, in seconds since the epoch
+     * @param to            End of the range, in seconds since the epoch
+     * @param flapWindow    Length, in seconds, of the window used to detect flapping
+     * @param flapThreshold Number of transitions within any flap window that counts as flapping
+     * @return {@link Summary} History Summary, or null if the recorder has no history
+     */
+    public Summary summarise(final String tenant, final String recorderId, final long from, final long to,
+                             final long flapWindow, final int flapThreshold) {
+        Ring ring = getRing(tenant, recorderId);
+        if (ring == null) return null;
+
+        List<Sample> samples = ring.query(from, to);
+        long end = Math.min(to, ring.getLastSeen());
+
+        Map<Status, Long> timeInState = new EnumMap<>(Status.class);
+        int transitions = 0;
+        int windowStart = 0;
+        boolean flapping = false;
+
+        for (int i = 0; i < samples.size(); i++) {
+            Sample sample = samples.get(i);
+            long start = Math.max(from, sample.getTime());
+            long stop = i + 1 < samples.size() ? samples.get(i + 1).getTime() : end;
+            if (stop > start) timeInState.merge(sample.getStatus(), stop - start, Long::sum);
+
+            if (sample.getTime() >= from) {
+                transitions++;
+
+                // Sliding window over the transitions in range
+                while (sample.getTime() - samples.get(windowStart).getTime() > flapWindow ||
+                        samples.get(windowStart).getTime() < from) windowStart++;
+                if (i - windowStart + 1 >= flapThreshold) flapping = true;
+            }
+        }
+
+        return new Summary(recorderId,
+                samples.isEmpty() ? null : samples.get(samples.size() - 1).getStatus(),
+                transitions,
+                flapping,
+                timeInState);
+    }
+
+    private Ring getRing(final String tenant, final String recorderId) {
+        Map<String, Ring> recorders = tenants.get(tenant);
+        return recorders != null ? recorders.get(recorderId) : null;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Sample {
+        private long time;      // Seconds since the epoch
+        private Status status;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Summary {
+        private String recorderId;
+        private Status status;
+        private int transitions;
+        private boolean flapping;
+        private Map<Status, Long> timeInState;  // Seconds
+    }
+
+    private static class Ring {
+        private final int[] times;
+        private final byte[] codes;
+        private int head = 0;   // Next slot to write
+        private int size = 0;
+        @Getter
+        private volatile int lastSeen = 0;
+
+        Ring(int capacity) {
+            times = new int[capacity];
+            codes = new byte[capacity];
+        }
+
+        synchronized void record(int time, Status status) {
+            if (time > lastSeen) lastSeen = time;
+
+            if (size > 0) {
+                int last = (head - 1 + times.length) % times.length;
+                if (codes[last] == (byte) status.getStateCode()) return;
+                if (time < times[last]) return; // Out of order observation - ignore it
+            }
+
+            times[head] = time;
+            codes[head] = (byte) status.getStateCode();
+            head = (head + 1) % times.length;
+            if (size < times.length) size++;
+        }
+
+        synchronized List<Sample> query(long from, long to) {
+            List<Sample> samples = new ArrayList<>();
+            int oldest = (head - size + times.length) % times.length;
+
+            for (int n = 0; n < size; n++) {
+                int i = (oldest + n) % times.length;
+                if (times[i] > to) break;
+
+                // Only keep the latest transition before the range, as the state the range started in
+                if (times[i] < from) samples.clear();
+                samples.add(new Sample(times[i], Status.getByCode(codes[i])));
+            }
+
+            return samples;
+        }
+    }
+}
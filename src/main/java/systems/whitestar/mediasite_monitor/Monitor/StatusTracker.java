@@ -0,0 +1,61 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.Getter;
+import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Models.StatusChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the last known status of each recorder, so that only changes need to be reported to the server. Statuses
+ * are kept per tenant, as recorders on different Mediasite servers may share an ID.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+public class StatusTracker {
+    @Getter
+    private static final StatusTracker instance = new StatusTracker();
+
+    private final Map<String, Map<String, Status>> lastKnown = new ConcurrentHashMap<>(); // By Tenant, Recorder ID
+
+    private StatusTracker() {
+    }
+
+    /**
+     * Record the latest observed status of a set of recorders.
+     *
+     * @param tenant   {@link String} Tenant the recorders belong to
+     * @param statuses {@link Map} Observed Status by Recorder ID
+     * @return {@link List} Recorders whose status differs from the last observation
+     */
+    public List<StatusChange> update(final String tenant, final Map<String, Status> statuses) {
+        final long now = System.currentTimeMillis();
+        final List<StatusChange> changes = new ArrayList<>();
+        final Map<String, Status> tenantLastKnown = lastKnown.computeIfAbsent(tenant, t -> new ConcurrentHashMap<>());
+
+        for (Map.Entry<String, Status> entry : statuses.entrySet()) {
+            if (entry.getValue() == null) continue;
+
+            Status previous = tenantLastKnown.put(entry.getKey(), entry.getValue());
+            if (previous != entry.getValue()) {
+                changes.add(new StatusChange(tenant, entry.getKey(), previous, entry.getValue(), now));
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * @param tenant {@link String} Tenant Name
+     * @return {@link Map} Last known Status by Recorder ID
+     */
+    public Map<String, Status> getLastKnown(final String tenant) {
+        Map<String, Status> tenantLastKnown = lastKnown.get(tenant);
+        return tenantLastKnown != null ? Collections.unmodifiableMap(tenantLastKnown) : Collections.emptyMap();
+    }
+}
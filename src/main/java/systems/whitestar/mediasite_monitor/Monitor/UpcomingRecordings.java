@@ -0,0 +1,89 @@
+package systems.whitestar.mediasite_monitor.Monitor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Jobs.ScheduleExpectationChecks;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Models.Schedule;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Finds the recordings that are scheduled to start within a time range, for the recorders this agent owns. The
+ * schedule and each schedule's recurrences are walked a page at a time, and only the IDs and times of the matching
+ * recordings are kept.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public final class UpcomingRecordings {
+    private UpcomingRecordings() {
+    }
+
+    /**
+     * @param mediasite {@link Mediasite} Mediasite Client
+     * @param from      {@link Date} Start of the range
+     * @param to        {@link Date} End of the range
+     * @return {@link List} Recordings that start within the range, or null if the schedule could not be retrieved
+     */
+    public static List<Recording> find(final Mediasite mediasite, final Date from, final Date to) {
+        final List<Recording> recordings = new ArrayList<>();
+        final List<String[]> schedules = new ArrayList<>(); // Schedule ID, Recorder ID
+
+        try {
+            if (mediasite.getSchedules(page -> {
+                for (Schedule schedule : page) {
+                    if (RecorderOwnership.getInstance().owns(schedule.getRecorderId()))
+                        schedules.add(new String[]{schedule.getId(), schedule.getRecorderId()});
+                }
+            }) == Mediasite.CollectionState.FAILED) return null;
+
+            for (String[] schedule : schedules) {
+                final String scheduleId = schedule[0];
+                final String recorderId = schedule[1];
+                Mediasite.CollectionState state = mediasite.getRecurrences(scheduleId, page -> {
+                    for (Schedule.Recurrence recurrence : page) {
+                        try {
+                            Date start = ScheduleExpectationChecks.expectedBetween(recurrence, from, to);
+                            if (start == null) continue;
+                            recordings.add(new Recording(recorderId, scheduleId, recurrence.getId(), start.getTime(),
+                                    recurrence.getRecordDuration() != null ? recurrence.getRecordDuration() : 0));
+                        } catch (ParseException e) {
+                            log.debug(String.format("Skipping Recurrence %s for Schedule %s - invalid start time",
+                                    recurrence.getId(), scheduleId));
+                        }
+                    }
+                });
+                if (state == Mediasite.CollectionState.FAILED)
+                    log.warn(String.format("Could not pull recurrences for schedule %s from Mediasite", scheduleId));
+            }
+        } catch (IOException e) {
+            // Adding to a list does not throw
+            throw new RuntimeException(e);
+        }
+
+        log.debug(String.format("Found %d recordings between %s and %s in %d schedules",
+                recordings.size(), from, to, schedules.size()));
+        return recordings;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Recording {
+        private String recorderId;
+        private String scheduleId;
+        private Integer recurrenceId;
+        private long start;     // Milliseconds since the epoch
+        private long duration;  // Milliseconds
+
+        public long getEnd() {
+            return start + duration;
+        }
+    }
+}
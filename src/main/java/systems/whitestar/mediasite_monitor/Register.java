@@ -8,6 +8,9 @@ import com.mashape.unirest.http.exceptions.UnirestException;
 import lombok.extern.log4j.Log4j;
 import systems.whitestar.mediasite_monitor.Models.AgentConfig;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Register Agent with Central Server and retrieve saved configuration (Mediasite Credentials) for the agent.
  *
@@ -47,6 +50,37 @@ public class Register {
         return new Gson().fromJson(response.getBody(), AgentConfig.class);
     }
 
+    /**
+     * Get the IDs of all agents registered with the server, including this one
+     *
+     * @return {@link List} Agent IDs, or null if they could not be retrieved
+     */
+    public static List<String> getPeers() {
+        Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+
+        HttpResponse<String> response;
+        try {
+            response = Unirest
+                    .get(String.format("%s/agent/peers", Agent.getAgent().getServerURL()))
+                    .asString();
+        } catch (UnirestException e) {
+            log.warn("Could not get registered agents from Server - Check URL and config", e);
+            return null;
+        }
+
+        if (response.getStatus() != 200) {
+            log.warn("Error code received from server when listing agents - HTTP Code: " + response.getStatus());
+            return null;
+        }
+
+        Agent[] agents = gson.fromJson(response.getBody(), Agent[].class);
+        if (agents == null) return null;
+
+        List<String> ids = new ArrayList<>();
+        for (Agent agent : agents) if (agent.getId() != null) ids.add(agent.getId());
+        return ids;
+    }
+
     private static boolean makeRegistrationRequest() {
         Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
 
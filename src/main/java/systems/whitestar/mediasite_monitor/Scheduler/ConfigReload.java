@@ -0,0 +1,56 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import lombok.extern.log4j.Log4j;
+import org.quartz.*;
+import systems.whitestar.mediasite_monitor.Agent;
+
+import static org.quartz.DateBuilder.futureDate;
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+/**
+ * Periodically fetch the agent's configuration from the server again, so that rotated Mediasite credentials are picked
+ * up without restarting the agent.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+@DisallowConcurrentExecution
+public class ConfigReload implements Job {
+    private static final String JOB_GROUP = "config";
+    private static final String TRIGGER_NAME = "ConfigReloadTrigger";
+    private static final String JOB_NAME = "ConfigReload";
+
+    /**
+     * Schedule the Config Reload
+     *
+     * @param scheduler         {@link Scheduler} Quartz Scheduler Instance
+     * @param intervalInSeconds How often the configuration should be fetched in Seconds
+     * @throws SchedulerException Something went wrong scheduling the job
+     */
+    public static void schedule(Scheduler scheduler, int intervalInSeconds) throws SchedulerException {
+        JobDetail job = newJob(ConfigReload.class)
+                .withIdentity(JOB_NAME, JOB_GROUP)
+                .build();
+
+        // The agent has just fetched its configuration, so wait for the first interval to elapse
+        Trigger trigger = newTrigger()
+                .withIdentity(TRIGGER_NAME, JOB_GROUP)
+                .withSchedule(simpleSchedule()
+                        .withIntervalInSeconds(intervalInSeconds)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .startAt(futureDate(intervalInSeconds, DateBuilder.IntervalUnit.SECOND))
+                .build();
+
+        scheduler.scheduleJob(job, trigger);
+    }
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        log.debug("Reloading Agent Configuration");
+        Agent.reloadConfig();
+    }
+}
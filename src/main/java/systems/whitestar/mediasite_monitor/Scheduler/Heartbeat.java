@@ -5,16 +5,32 @@ import com.google.gson.GsonBuilder;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.http.options.Option;
+import com.mashape.unirest.http.options.Options;
 import lombok.extern.log4j.Log4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
 import org.quartz.*;
 import systems.whitestar.mediasite_monitor.Agent;
+import systems.whitestar.mediasite_monitor.Http.Deadline;
+import systems.whitestar.mediasite_monitor.Jobs.StreamingJobInterface;
 import systems.whitestar.mediasite_monitor.Models.AgentJob;
 import systems.whitestar.mediasite_monitor.Models.ClassTypeAdapter;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+import static org.quartz.DateBuilder.futureDate;
 import static org.quartz.JobBuilder.newJob;
 import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
 import static org.quartz.TriggerBuilder.newTrigger;
@@ -31,6 +47,8 @@ public class Heartbeat implements Job {
     private static final String JOB_GROUP = "heartbeat";
     private static final String TRIGGER_NAME = "HeartbeatTrigger";
     private static final String JOB_NAME = "Heartbeat";
+    static final JobKey JOB_KEY = new JobKey(JOB_NAME, JOB_GROUP);
+    static final String PUSHED_JOB_KEY = "pushed-job"; // JobDataMap key for jobs delivered by the JobStream
 
     private static Gson gson = new GsonBuilder().registerTypeAdapter(Class.class, new ClassTypeAdapter()).create();
 
@@ -44,20 +62,36 @@ public class Heartbeat implements Job {
      */
     public static void schedule(Scheduler scheduler, int intervalInSeconds) throws SchedulerException {
         JobDetail job = newJob(Heartbeat.class)
-                .withIdentity(JOB_NAME, JOB_GROUP)
+                .withIdentity(JOB_KEY)
                 .build();
 
-        // Trigger the job to run now, and then repeat every X Minutes
-        Trigger trigger = newTrigger()
+        // Trigger the job to run now, and then repeat every X Seconds
+        scheduler.scheduleJob(job, buildTrigger(intervalInSeconds, new Date()));
+    }
+
+    /**
+     * Change how often the Heartbeat polls the server for new jobs. Used to relax polling while jobs are being pushed
+     * to the agent via the {@link JobStream}, and to resume normal polling when the stream drops.
+     *
+     * @param scheduler         {@link Scheduler} Quartz Scheduler Instance
+     * @param intervalInSeconds How often the job should run in Seconds
+     * @param pollNow           If the Heartbeat should run immediately, or wait for the first interval to elapse
+     * @throws SchedulerException Something went wrong rescheduling the job
+     */
+    static void reschedule(Scheduler scheduler, int intervalInSeconds, boolean pollNow) throws SchedulerException {
+        Date start = pollNow ? new Date() : futureDate(intervalInSeconds, DateBuilder.IntervalUnit.SECOND);
+        scheduler.rescheduleJob(new TriggerKey(TRIGGER_NAME, JOB_GROUP), buildTrigger(intervalInSeconds, start));
+    }
+
+    private static Trigger buildTrigger(int intervalInSeconds, Date start) {
+        return newTrigger()
                 .withIdentity(TRIGGER_NAME, JOB_GROUP)
+                .forJob(JOB_KEY)
                 .withSchedule(simpleSchedule()
                         .withIntervalInSeconds(intervalInSeconds)
                         .repeatForever())
-                .startNow()
+                .startAt(start)
                 .build();
-
-        // Tell quartz to schedule the job using our trigger
-        scheduler.scheduleJob(job, trigger);
     }
 
     /**
@@ -119,22 +153,120 @@ public class Heartbeat implements Job {
         }
     }
 
+    /**
+     * Send a job result to the web server as it is read. Used to run a {@link StreamingResultEntity} job while its
+     * result is sent.
+     *
+     * @param jobID {@link String} Job ID
+     * @param body  {@link HttpEntity} Job Result
+     */
+    private static void pushEntity(final String jobID, final HttpEntity body) {
+        HttpPost request = new HttpPost(String.format("%s/agent/queue/job/%s", Agent.getAgent().getServerURL(), jobID));
+        request.setEntity(body);
+
+        // Share Unirest's connection pool
+        HttpClient client = (HttpClient) Options.getOption(Option.HTTPCLIENT);
+        int status;
+        String responseBody;
+
+        try {
+            org.apache.http.HttpResponse response = client.execute(request);
+            status = response.getStatusLine().getStatusCode();
+            responseBody = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : null;
+        } catch (IOException e) {
+            log.warn("Could not push result to server - Check URL and config", e);
+            throw new RuntimeException(e);
+        }
+
+        if (status == 202) log.info("Job results accepted");
+        else {
+            log.warn("Job results rejected");
+            log.debug(responseBody);
+        }
+    }
+
+    /**
+     * Save the job result to the {@link Outbox}, to be sent to the web server in the background
+     *
+     * @param outbox {@link Outbox} Outbox
+     * @param jobID  {@link String} Job ID
+     * @param body   {@link HttpEntity} Job Result
+     * @return If the result was saved, false if it should be sent directly instead
+     */
+    private static boolean saveResult(final Outbox outbox, final String jobID, final HttpEntity body) {
+        try {
+            outbox.add(jobID, body);
+            return true;
+        } catch (IOException e) {
+            log.error(String.format("Could not save result for job %s to Outbox", jobID), e);
+            return false;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
         log.debug("❤");
 
-        // Check in with Web Server
-        AgentJob job = ping();
+        // Use the job pushed by the JobStream, if there is one, otherwise check in with Web Server
+        AgentJob job = (AgentJob) context.getMergedJobDataMap().get(PUSHED_JOB_KEY);
+        if (job == null) job = ping();
         if (job == null) return;
 
+        final Outbox outbox = Outbox.getInstance();
+        if (outbox != null && outbox.contains(job.getId())) {
+            // The job already ran, but its result has not reached the server yet. The server will keep handing it out
+            // until then, so wait for the next heartbeat instead of asking again straight away.
+            log.info(String.format("Result for job %s is already waiting in the Outbox - skipping", job.getId()));
+            return;
+        }
+
         // Execute a job if one was received
+        final ResultMemo memo = ResultMemo.getInstance();
+        final JobRunner runner = JobRunner.getInstance();
         Map<String, String> result = null;
 
         try {
-            Class jobClass = job.getJob();
-            Method method = jobClass.getMethod("execute", Map.class);
-            result = (Map<String, String>) method.invoke(jobClass.newInstance(), job.getPayload());
+            Class<?> jobClass = job.getJob();
+            Object instance = jobClass.newInstance();
+
+            if (instance instanceof StreamingJobInterface) {
+                // Large results are sent as they are produced, instead of being returned. The job runs on this thread
+                // as its result is written, so it cannot be cancelled - its deadline only bounds its requests, and its
+                // result is marked as timed out if it passed.
+                Deadline.set(runner.getDeadline(jobClass, job.getPayload()), TimeUnit.SECONDS);
+                ResultMemo.SpooledResult spooled = null;
+                try {
+                    spooled = spooledResult(memo, job, (StreamingJobInterface) instance);
+                    sendResult(outbox, job, spooled != null ?
+                            new FileEntity(spooled.getFile(), ContentType.APPLICATION_JSON) :
+                            new StreamingResultEntity((StreamingJobInterface) instance, job.getPayload()));
+                } catch (IOException e) {
+                    // The job has already run into the spool file, so running it again to stream its result would
+                    // repeat all of its requests
+                    log.error("Could not spool job result - reporting an error for the job", e);
+                    sendResult(outbox, job, new StringEntity(
+                            gson.toJson(errorResult(job, "Job result could not be spooled")),
+                            ContentType.APPLICATION_JSON));
+                } finally {
+                    if (spooled != null) spooled.close();
+                    Deadline.clear();
+                }
+                retrigger();
+                return;
+            }
+
+            // Copy the payload before the job runs, as jobs add their results to it
+            Map<String, String> payload = job.getPayload() != null ? new HashMap<>(job.getPayload()) : null;
+            result = memo.getResult(jobClass, payload);
+
+            if (result == null) {
+                final Method method = jobClass.getMethod("execute", Map.class);
+                result = runner.run(jobClass, job.getPayload(),
+                        jobPayload -> (Map<String, String>) method.invoke(instance, jobPayload));
+                if (result == null || !result.containsKey(JobRunner.TIMEOUT_KEY))
+                    memo.putResult(jobClass, payload, result);
+            }
         } catch (NoSuchMethodException e) {
             log.error("Class does not correctly implement the interface as it is missing the 'execute' method", e);
         } catch (IllegalAccessException | InstantiationException e) {
@@ -144,11 +276,74 @@ public class Heartbeat implements Job {
         }
 
         // Return the job result to the server
-        pushResult(job.getId(), result);
+        if (outbox == null || !saveResult(outbox, job.getId(),
+                new StringEntity(gson.toJson(result), ContentType.APPLICATION_JSON)))
+            pushResult(job.getId(), result);
+
+        retrigger();
+    }
+
+    /**
+     * Get the spooled result for a streaming job. Memoized job types are run into a spool file, so that the result can
+     * be reused; otherwise there is no spooled result and the job runs as its result is sent.
+     *
+     * @param memo     {@link ResultMemo} Job Result Memo
+     * @param job      {@link AgentJob} Job
+     * @param instance {@link StreamingJobInterface} Job to run
+     * @return {@link ResultMemo.SpooledResult} Job Result, to be closed once it is sent, or null if it was not spooled
+     * @throws IOException The job ran, but its result could not be spooled
+     */
+    private static ResultMemo.SpooledResult spooledResult(final ResultMemo memo, final AgentJob job,
+                                                          final StreamingJobInterface instance) throws IOException {
+        final Class<?> jobClass = job.getJob();
+        final Map<String, String> payload = job.getPayload() != null ? new HashMap<>(job.getPayload()) : null;
+
+        ResultMemo.SpooledResult spooled = memo.getSpooledResult(jobClass, payload);
+        if (spooled == null && memo.isMemoized(jobClass))
+            spooled = memo.spool(jobClass, payload, new StreamingResultEntity(instance, job.getPayload()));
 
-        // Re-trigger Job to see if there is anything else
+        return spooled;
+    }
+
+    /**
+     * Send a job result to the web server, through the {@link Outbox} if it is available. If the Outbox could not save
+     * a body that cannot be written twice, such as one that runs its job as it is written, an error is reported for the
+     * job instead, rather than running the job again.
+     *
+     * @param outbox {@link Outbox} Outbox, or null to send directly
+     * @param job    {@link AgentJob} Job
+     * @param body   {@link HttpEntity} Job Result
+     */
+    private static void sendResult(final Outbox outbox, final AgentJob job, final HttpEntity body) {
+        if (outbox == null) {
+            pushEntity(job.getId(), body);
+        } else if (!saveResult(outbox, job.getId(), body)) {
+            if (body.isRepeatable()) {
+                pushEntity(job.getId(), body);
+                return;
+            }
+
+            pushResult(job.getId(), errorResult(job, "Job result could not be saved"));
+        }
+    }
+
+    /**
+     * @param job   {@link AgentJob} Job
+     * @param error Error Message
+     * @return {@link Map} Job Result reporting the error
+     */
+    private static Map<String, String> errorResult(final AgentJob job, final String error) {
+        Map<String, String> result = job.getPayload() != null ? new HashMap<>(job.getPayload()) : new HashMap<>();
+        result.put(JobRunner.ERROR_KEY, error);
+        return result;
+    }
+
+    /**
+     * Re-trigger Job to see if there is anything else
+     */
+    private static void retrigger() {
         try {
-            Schedule.getScheduler().triggerJob(context.getJobDetail().getKey());
+            Schedule.getScheduler().triggerJob(JOB_KEY);
         } catch (SchedulerException e) {
             log.warn("Could not re-trigger heartbeat job", e);
         }
@@ -0,0 +1,169 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import lombok.extern.log4j.Log4j;
+import systems.whitestar.mediasite_monitor.Http.Deadline;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs jobs with a deadline, so that a job stuck waiting on Mediasite or a recorder cannot hold a scheduler thread
+ * forever. The deadline comes from the job's "deadline" payload entry, in seconds, or the default for its type, and is
+ * set as the job thread's {@link Deadline} so request timeouts end with it. A job that is still running at its deadline
+ * is interrupted, and whatever it had added to its payload so far is returned, marked as timed out. Jobs are given a
+ * synchronized copy of their payload, so that it can be copied safely while a cancelled job is still writing to it.
+ * <p>
+ * Streaming jobs are not run here, as they run while their result is sent. Their deadline only bounds their requests,
+ * and their result is marked as timed out if it passed, but they are not cancelled.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class JobRunner {
+    public static final String DEADLINE_KEY = "deadline";
+    public static final String TIMEOUT_KEY = "timeout";
+    public static final String ERROR_KEY = "error";
+
+    private static final int DEFAULT_DEADLINE = 300;    // Seconds, for job types without their own default
+    private static final int CANCEL_GRACE = 5;          // Seconds a cancelled job has to stop before its result is read
+    private static final Map<String, Integer> DEFAULT_DEADLINES; // Seconds, by Job Class Simple Name
+
+    static {
+        Map<String, Integer> deadlines = new HashMap<>();
+        deadlines.put("SyncRecorderStatus", 30);
+        deadlines.put("RecorderExpectationCheck", 60);
+        deadlines.put("SyncFleetStatus", 120);
+        deadlines.put("SyncRecorderDB", 600);
+        deadlines.put("ScheduleExpectationChecks", 600);
+        DEFAULT_DEADLINES = Collections.unmodifiableMap(deadlines);
+    }
+
+    private static JobRunner instance;
+
+    private final ExecutorService executor;
+    private volatile Map<String, Integer> deadlines = DEFAULT_DEADLINES;
+
+    private JobRunner() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized JobRunner getInstance() {
+        if (instance == null) instance = new JobRunner();
+        return instance;
+    }
+
+    /**
+     * Change the default deadlines
+     *
+     * @param deadlines {@link Map} Seconds each job type may run for, by Job Class Simple Name. Job types that are not
+     *                  listed keep their default.
+     */
+    public void setDeadlines(final Map<String, Integer> deadlines) {
+        Map<String, Integer> merged = new HashMap<>(DEFAULT_DEADLINES);
+        if (deadlines != null) merged.putAll(deadlines);
+        this.deadlines = Collections.unmodifiableMap(merged);
+    }
+
+    /**
+     * @param job     {@link Class} Job Class
+     * @param payload {@link Map} Job Payload
+     * @return How long, in seconds, the job may run for
+     */
+    public int getDeadline(final Class<?> job, final Map<String, String> payload) {
+        if (payload != null && payload.get(DEADLINE_KEY) != null) {
+            try {
+                int deadline = Integer.parseInt(payload.get(DEADLINE_KEY));
+                if (deadline > 0) return deadline;
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid job deadline - " + payload.get(DEADLINE_KEY));
+            }
+        }
+
+        Integer deadline = deadlines.get(job.getSimpleName());
+        return deadline != null && deadline > 0 ? deadline : DEFAULT_DEADLINE;
+    }
+
+    /**
+     * Run a job on a worker thread, and wait for it until its deadline
+     *
+     * @param job     {@link Class} Job Class
+     * @param payload {@link Map} Job Payload
+     * @param task    {@link JobCall} Job Execution, given the copy of the payload that the job adds its results to
+     * @return {@link Map} Job Result, or the partial result marked with {@link #TIMEOUT_KEY} if the deadline passed
+     * @throws InvocationTargetException Job threw an exception
+     * @throws IllegalAccessException    Job could not be called
+     */
+    public Map<String, String> run(final Class<?> job, final Map<String, String> payload, final JobCall task)
+            throws InvocationTargetException, IllegalAccessException {
+        final int deadline = getDeadline(job, payload);
+        final CountDownLatch done = new CountDownLatch(1);
+        final Map<String, String> jobPayload = Collections.synchronizedMap(
+                payload != null ? new HashMap<>(payload) : new HashMap<>());
+
+        Future<Map<String, String>> future = executor.submit(() -> {
+            Deadline.set(deadline, TimeUnit.SECONDS);
+            try {
+                return task.call(jobPayload);
+            } finally {
+                Deadline.clear();
+                done.countDown();
+            }
+        });
+
+        try {
+            return future.get(deadline, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalAccessException) throw (IllegalAccessException) cause;
+            if (cause instanceof InvocationTargetException) throw (InvocationTargetException) cause;
+            throw new InvocationTargetException(cause);
+        } catch (TimeoutException e) {
+            log.warn(String.format("%s did not finish within its %d second deadline - cancelling",
+                    job.getSimpleName(), deadline));
+        } catch (InterruptedException e) {
+            log.warn(String.format("Interrupted while waiting for %s - cancelling", job.getSimpleName()));
+            Thread.currentThread().interrupt();
+        }
+
+        future.cancel(true);
+        try {
+            if (!done.await(CANCEL_GRACE, TimeUnit.SECONDS))
+                log.warn(String.format("%s did not stop when cancelled - returning its result so far",
+                        job.getSimpleName()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return partialResult(jobPayload);
+    }
+
+    /**
+     * @param payload {@link Map} Synchronized payload of the cancelled job
+     * @return {@link Map} Copy of what the job had added to its payload, marked as timed out
+     */
+    private static Map<String, String> partialResult(final Map<String, String> payload) {
+        final Map<String, String> result;
+        synchronized (payload) {
+            // The job may still be adding to its payload
+            result = new HashMap<>(payload);
+        }
+
+        result.put(TIMEOUT_KEY, Boolean.toString(true));
+        return result;
+    }
+
+    /**
+     * Job Execution, called on the worker thread
+     */
+    public interface JobCall {
+        Map<String, String> call(Map<String, String> payload) throws InvocationTargetException, IllegalAccessException;
+    }
+}
@@ -0,0 +1,198 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import lombok.extern.log4j.Log4j;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.quartz.JobDataMap;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import systems.whitestar.mediasite_monitor.Models.AgentJob;
+import systems.whitestar.mediasite_monitor.Models.ClassTypeAdapter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional push transport for jobs. Holds a Server-Sent Events connection open to the server, which sends each
+ * {@link AgentJob} for this agent as soon as it is queued. Pushed jobs are handed to the {@link Heartbeat}, so they are
+ * executed and reported exactly like polled jobs.
+ * <p>
+ * While the stream is connected the Heartbeat only polls at a relaxed rate, as a safety net. If the stream drops, or the
+ * server does not support it, the Heartbeat is put back to its normal polling rate and the stream reconnects with
+ * exponential backoff.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class JobStream implements Runnable {
+    private static final int CONNECT_TIMEOUT = 10;         // Seconds
+    private static final int READ_TIMEOUT = 90;            // Seconds - the server is expected to send keep-alive comments
+    private static final int STREAM_HEARTBEAT_RATE = 300;  // Heartbeat rate, in seconds, while the stream is connected
+    private static final int MIN_RECONNECT_DELAY = 1;      // Seconds
+    private static final int MAX_RECONNECT_DELAY = 60;     // Seconds
+
+    private static Gson gson = new GsonBuilder().registerTypeAdapter(Class.class, new ClassTypeAdapter()).create();
+
+    private final Scheduler scheduler;
+    private final String streamURL;
+    private final int pollRate;
+    private final CloseableHttpClient httpClient;
+
+    private JobStream(Scheduler scheduler, String serverURL, int pollRate) {
+        this.scheduler = scheduler;
+        this.streamURL = String.format("%s/agent/queue/stream", serverURL);
+        this.pollRate = pollRate;
+        this.httpClient = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) TimeUnit.SECONDS.toMillis(CONNECT_TIMEOUT))
+                        .setSocketTimeout((int) TimeUnit.SECONDS.toMillis(READ_TIMEOUT))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Start listening for pushed jobs in a background thread.
+     *
+     * @param scheduler {@link Scheduler} Quartz Scheduler Instance, with the {@link Heartbeat} already scheduled
+     * @param serverURL {@link String} Monitoring Server URL
+     * @param pollRate  How often, in seconds, the Heartbeat should poll when the stream is not connected
+     */
+    public static void start(Scheduler scheduler, String serverURL, int pollRate) {
+        Thread thread = new Thread(new JobStream(scheduler, serverURL, pollRate), "JobStream");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        int reconnectDelay = MIN_RECONNECT_DELAY;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            StreamState state = listen();
+
+            if (state == StreamState.UNSUPPORTED) {
+                log.warn("Server does not support pushing jobs to agents - continuing with polling only");
+                return;
+            }
+            if (state == StreamState.CONNECTED) {
+                reconnectDelay = MIN_RECONNECT_DELAY;
+                log.info(String.format("Job Stream disconnected - falling back to polling, reconnecting in %d seconds",
+                        reconnectDelay));
+                setPollRate(pollRate, true);
+            } else {
+                // Already polling at the normal rate, so leave the Heartbeat alone
+                log.info(String.format("Could not connect Job Stream - reconnecting in %d seconds", reconnectDelay));
+            }
+
+            try {
+                TimeUnit.SECONDS.sleep(reconnectDelay);
+            } catch (InterruptedException e) {
+                log.warn("Job Stream Interrupted", e);
+                return;
+            }
+            reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY);
+        }
+    }
+
+    /**
+     * Open the stream and dispatch events until it is closed.
+     *
+     * @return {@link StreamState} If the stream was established before it closed
+     */
+    private StreamState listen() {
+        HttpGet request = new HttpGet(streamURL);
+        request.setHeader("Accept", "text/event-stream");
+        request.setHeader("Cache-Control", "no-cache");
+        boolean connected = false;
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == 404 || status == 501) return StreamState.UNSUPPORTED;
+            if (status != 200) {
+                log.warn("Error code received from server when opening Job Stream - HTTP Code: " + status);
+                return StreamState.FAILED;
+            }
+
+            log.info("Job Stream connected - jobs will be pushed by the server");
+            connected = true;
+            setPollRate(STREAM_HEARTBEAT_RATE, false);
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8));
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    // Blank line terminates the event
+                    if (data.length() > 0) dispatch(event, data.toString());
+                    event = null;
+                    data.setLength(0);
+                } else if (line.startsWith(":")) {
+                    log.trace("Job Stream keep-alive");
+                } else if (line.startsWith("event:")) {
+                    event = line.substring("event:".length()).trim();
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) data.append('\n');
+                    data.append(line.substring("data:".length()).trim());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Job Stream connection lost", e);
+            return connected ? StreamState.CONNECTED : StreamState.FAILED;
+        }
+
+        return StreamState.CONNECTED;
+    }
+
+    private void dispatch(String event, String data) {
+        if (event != null && !event.equals("job")) {
+            log.debug(String.format("Ignoring Job Stream event \"%s\"", event));
+            return;
+        }
+
+        AgentJob job;
+        try {
+            job = gson.fromJson(data, AgentJob.class);
+        } catch (JsonParseException e) {
+            log.warn("Could not parse job pushed by server", e);
+            return;
+        }
+
+        log.info("Received job from Server via Job Stream");
+        log.debug(job);
+
+        JobDataMap jobData = new JobDataMap();
+        jobData.put(Heartbeat.PUSHED_JOB_KEY, job);
+        try {
+            scheduler.triggerJob(Heartbeat.JOB_KEY, jobData);
+        } catch (SchedulerException e) {
+            log.error("Could not trigger heartbeat for pushed job", e);
+        }
+    }
+
+    private void setPollRate(int intervalInSeconds, boolean pollNow) {
+        try {
+            Heartbeat.reschedule(scheduler, intervalInSeconds, pollNow);
+        } catch (SchedulerException e) {
+            log.warn("Could not change Heartbeat polling rate", e);
+        }
+    }
+
+    private enum StreamState {
+        CONNECTED,
+        FAILED,
+        UNSUPPORTED
+    }
+}
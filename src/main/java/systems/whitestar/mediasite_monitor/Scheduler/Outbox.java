@@ -0,0 +1,427 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import com.mashape.unirest.http.options.Option;
+import com.mashape.unirest.http.options.Options;
+import lombok.Value;
+import lombok.extern.log4j.Log4j;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.util.EntityUtils;
+import systems.whitestar.mediasite_monitor.Agent;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable queue of job results waiting to be sent to the server. Each result is written to disk before it is sent, so a
+ * result that was produced while the server was unavailable is not lost, and the job does not have to be run again
+ * when the agent or the server restarts.
+ * <p>
+ * The outbox is an append-only journal of PUT (result saved) and ACK (result delivered) lines, plus one file per
+ * result body. A background uploader sends the results in the order they were completed, and backs off while the
+ * server cannot be reached. Results are keyed by job ID, so a job that is delivered again while its result is still
+ * waiting is not re-run. A result that the server keeps failing on with a server error is moved to the dead letter
+ * directory, so that it does not hold up the results behind it.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class Outbox implements Runnable {
+    private static final String OUTBOX_DIRECTORY = "outbox"; // Within the agent's state directory
+    private static final String JOURNAL_NAME = "outbox.log";
+    private static final int BATCH_SIZE = 25;             // Results sent per pass before the journal is updated
+    private static final int MIN_RETRY_DELAY = 1;         // Seconds
+    private static final int MAX_RETRY_DELAY = 300;       // Seconds
+    private static final int MAX_SERVER_ERRORS = 5;       // Server errors for one result before it is dead lettered
+    private static final String DEAD_LETTER_DIRECTORY = "dead-letter"; // Within the outbox directory
+
+    private static Outbox instance;
+
+    private final File directory;
+    private final File journal;
+    private final File deadLetters;
+    private final LinkedHashMap<Long, Entry> pending = new LinkedHashMap<>();
+    private final Set<String> pendingJobs = new HashSet<>();
+    private final Map<Long, Integer> serverErrors = new HashMap<>(); // By Sequence, only touched by the uploader
+    private long nextSequence = 0;
+    private boolean started = false;
+
+    private Outbox(File directory) {
+        this.directory = directory;
+        this.journal = new File(directory, JOURNAL_NAME);
+        this.deadLetters = new File(directory, DEAD_LETTER_DIRECTORY);
+    }
+
+    /**
+     * Get the Outbox, replaying the journal left by the previous run of the agent the first time it is used.
+     *
+     * @return {@link Outbox} Outbox, or null if the outbox directory cannot be used
+     */
+    public static synchronized Outbox getInstance() {
+        if (instance == null) {
+            Outbox outbox = new Outbox(new File(Agent.getStateDirectory(), OUTBOX_DIRECTORY));
+            try {
+                outbox.load();
+            } catch (IOException e) {
+                log.error("Cannot open Outbox - job results will be sent directly", e);
+                return null;
+            }
+            instance = outbox;
+        }
+
+        return instance;
+    }
+
+    /**
+     * Start sending queued results to the server in a background thread.
+     */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+
+        Thread thread = new Thread(this, "Outbox");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Check if a result for the job is still waiting to be sent.
+     *
+     * @param jobID {@link String} Job ID
+     * @return If the job's result is already in the Outbox
+     */
+    public synchronized boolean contains(final String jobID) {
+        return pendingJobs.contains(jobID);
+    }
+
+    /**
+     * Save a job result to be sent to the server. The body is written to disk before this returns, so a
+     * {@link StreamingResultEntity} runs its job here.
+     *
+     * @param jobID {@link String} Job ID
+     * @param body  {@link HttpEntity} Job Result, as it should be sent to the server
+     * @return If the result was added, false if a result for the job is already waiting to be sent
+     * @throws IOException Result could not be saved
+     */
+    public boolean add(final String jobID, final HttpEntity body) throws IOException {
+        final long sequence;
+        synchronized (this) {
+            if (pendingJobs.contains(jobID)) return false;
+            pendingJobs.add(jobID); // Reserve the job while the body is written
+            sequence = nextSequence++;
+        }
+
+        final File file = bodyFile(sequence);
+        final File temp = new File(directory, sequence + ".tmp");
+        try {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                body.writeTo(out);
+                out.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            synchronized (this) {
+                appendToJournal(Collections.singletonList(String.format("PUT %d %s", sequence, jobID)));
+                pending.put(sequence, new Entry(sequence, jobID));
+                notifyAll();
+            }
+        } catch (IOException | RuntimeException e) {
+            synchronized (this) {
+                pendingJobs.remove(jobID);
+            }
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            throw e;
+        }
+
+        log.debug(String.format("Saved result for job %s to Outbox (%d waiting)", jobID, size()));
+        return true;
+    }
+
+    /**
+     * @return Number of results waiting to be sent
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    @Override
+    public void run() {
+        int retryDelay = MIN_RETRY_DELAY;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<Entry> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            final List<Entry> delivered = new ArrayList<>();
+            boolean failed = false;
+            for (Entry entry : batch) {
+                try {
+                    send(entry);
+                    delivered.add(entry);
+                    serverErrors.remove(entry.getSequence());
+                } catch (ServerErrorException e) {
+                    int errors = serverErrors.merge(entry.getSequence(), 1, Integer::sum);
+                    if (errors >= MAX_SERVER_ERRORS) {
+                        // The server cannot process this result, so stop it from blocking the ones behind it
+                        deadLetter(entry, e);
+                        delivered.add(entry);
+                        serverErrors.remove(entry.getSequence());
+                        continue;
+                    }
+
+                    log.warn(String.format("Server could not process result for job %s (attempt %d of %d) - " +
+                            "retrying in %d seconds", entry.getJobID(), errors, MAX_SERVER_ERRORS, retryDelay), e);
+                    failed = true;
+                    break;
+                } catch (IOException e) {
+                    log.warn(String.format("Could not send result for job %s to server - retrying in %d seconds",
+                            entry.getJobID(), retryDelay), e);
+                    failed = true;
+                    break;
+                }
+            }
+
+            try {
+                acknowledge(delivered);
+            } catch (IOException e) {
+                log.error("Could not update Outbox journal - delivered results may be sent again", e);
+            }
+
+            if (failed) {
+                try {
+                    TimeUnit.SECONDS.sleep(retryDelay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            } else {
+                retryDelay = MIN_RETRY_DELAY;
+            }
+        }
+    }
+
+    /**
+     * Wait for results to send
+     *
+     * @return The oldest results in the Outbox, in the order they were added
+     * @throws InterruptedException Interrupted while waiting for a result
+     */
+    private synchronized List<Entry> nextBatch() throws InterruptedException {
+        while (pending.isEmpty()) wait();
+
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        for (Entry entry : pending.values()) {
+            batch.add(entry);
+            if (batch.size() == BATCH_SIZE) break;
+        }
+        return batch;
+    }
+
+    /**
+     * Send a result to the server. Results the server rejects are not retried, as they would only be rejected again.
+     *
+     * @param entry {@link Entry} Result to send
+     * @throws ServerErrorException Server failed to process the result
+     * @throws IOException          Server could not be reached
+     */
+    private void send(final Entry entry) throws IOException {
+        HttpPost request = new HttpPost(String.format("%s/agent/queue/job/%s",
+                Agent.getAgent().getServerURL(), entry.getJobID()));
+        request.setEntity(new FileEntity(bodyFile(entry.getSequence()), ContentType.APPLICATION_JSON));
+
+        // Share Unirest's connection pool
+        HttpClient client = (HttpClient) Options.getOption(Option.HTTPCLIENT);
+        HttpResponse response = client.execute(request);
+        int status = response.getStatusLine().getStatusCode();
+        String body = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : null;
+
+        if (status >= 500) throw new ServerErrorException("Server error - HTTP Code: " + status);
+        if (status == 202) log.info(String.format("Job results accepted for job %s", entry.getJobID()));
+        else {
+            log.warn(String.format("Job results rejected for job %s - HTTP Code: %d", entry.getJobID(), status));
+            log.debug(body);
+        }
+    }
+
+    /**
+     * Move a result that the server keeps failing on out of the Outbox, so that it can be inspected. If it cannot be
+     * moved it is dropped.
+     *
+     * @param entry {@link Entry} Result
+     * @param error {@link IOException} Last Server Error
+     */
+    private void deadLetter(final Entry entry, final IOException error) {
+        log.error(String.format("Server failed to process result for job %s %d times - moving it to %s",
+                entry.getJobID(), MAX_SERVER_ERRORS, deadLetters), error);
+
+        try {
+            if (!deadLetters.isDirectory() && !deadLetters.mkdirs())
+                throw new IOException("Cannot create dead letter directory " + deadLetters);
+            Files.move(bodyFile(entry.getSequence()).toPath(),
+                    new File(deadLetters, String.format("%d-%s.json", entry.getSequence(), entry.getJobID())).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.error(String.format("Could not move result for job %s to dead letters - dropping it",
+                    entry.getJobID()), e);
+        }
+    }
+
+    /**
+     * Record that results have been delivered, and remove them from the Outbox. The journal is emptied once every
+     * result in it has been delivered, so it does not grow without bound.
+     *
+     * @param delivered {@link List} Delivered Results
+     * @throws IOException Journal could not be updated
+     */
+    private synchronized void acknowledge(final List<Entry> delivered) throws IOException {
+        if (delivered.isEmpty()) return;
+
+        List<String> lines = new ArrayList<>(delivered.size());
+        for (Entry entry : delivered) lines.add(String.format("ACK %d", entry.getSequence()));
+        appendToJournal(lines);
+
+        for (Entry entry : delivered) {
+            pending.remove(entry.getSequence());
+            pendingJobs.remove(entry.getJobID());
+            //noinspection ResultOfMethodCallIgnored
+            bodyFile(entry.getSequence()).delete();
+        }
+
+        if (pending.isEmpty()) compact();
+    }
+
+    /**
+     * Replay the journal to find the results that were not delivered before the agent last stopped, and remove any
+     * files that are no longer needed.
+     *
+     * @throws IOException Outbox directory or journal could not be read
+     */
+    private synchronized void load() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create Outbox directory " + directory);
+
+        if (journal.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split(" ");
+                    try {
+                        long sequence = Long.parseLong(parts[1]);
+                        nextSequence = Math.max(nextSequence, sequence + 1);
+
+                        if ("PUT".equals(parts[0]) && parts.length == 3 && bodyFile(sequence).exists())
+                            pending.put(sequence, new Entry(sequence, parts[2]));
+                        else if ("ACK".equals(parts[0])) pending.remove(sequence);
+                    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                        // The last line may be incomplete if the agent stopped while it was being written
+                        log.warn("Skipping malformed Outbox journal line: " + line);
+                    }
+                }
+            }
+        }
+
+        for (Entry entry : pending.values()) pendingJobs.add(entry.getJobID());
+
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.equals(journal) || file.equals(deadLetters)) continue;
+                String name = file.getName();
+                String sequence = name.substring(0, Math.max(name.indexOf('.'), 0));
+                if (!name.endsWith(".json") || !pending.containsKey(parseSequence(sequence))) {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+        }
+
+        compact();
+        if (!pending.isEmpty())
+            log.info(String.format("Outbox has %d results from a previous run to send", pending.size()));
+    }
+
+    /**
+     * Rewrite the journal with only the results that are still waiting to be sent.
+     *
+     * @throws IOException Journal could not be written
+     */
+    private void compact() throws IOException {
+        File temp = new File(directory, JOURNAL_NAME + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (Entry entry : pending.values())
+                writer.write(String.format("PUT %d %s\n", entry.getSequence(), entry.getJobID()));
+            writer.flush();
+            out.getFD().sync();
+        }
+        Files.move(temp.toPath(), journal.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void appendToJournal(final List<String> lines) throws IOException {
+        final long length = journal.length();
+        try (FileOutputStream out = new FileOutputStream(journal, true)) {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            for (String line : lines) writer.write(line + "\n");
+            writer.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            // Cut off whatever part of the lines was written, so the journal is not left with a partial entry
+            try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(length);
+            } catch (IOException truncateException) {
+                e.addSuppressed(truncateException);
+            }
+            throw e;
+        }
+    }
+
+    private File bodyFile(final long sequence) {
+        return new File(directory, sequence + ".json");
+    }
+
+    private static long parseSequence(final String sequence) {
+        try {
+            return Long.parseLong(sequence);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The server was reached, but failed to process the result
+     */
+    private static class ServerErrorException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ServerErrorException(String message) {
+            super(message);
+        }
+    }
+
+    @Value
+    private static class Entry {
+        long sequence;
+        String jobID;
+    }
+}
@@ -0,0 +1,315 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import com.google.gson.Gson;
+import lombok.extern.log4j.Log4j;
+import org.apache.http.HttpEntity;
+import systems.whitestar.mediasite_monitor.Agent;
+import systems.whitestar.mediasite_monitor.Http.Deadline;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recent job results, so that the same job with the same payload, queued again shortly after, is answered
+ * without calling Mediasite again. Each job type has its own freshness window; job types without one are never
+ * memoized. The least recently used results are evicted once the memo is full.
+ * <p>
+ * Results of streaming jobs can be large, so they are kept in a spool file instead of in memory. A spool file is only
+ * deleted once every {@link SpooledResult} reading it has been closed. Results can contain recorder credentials, so
+ * spool files are kept in the agent's state directory, readable only by the agent's user, and any left behind by a
+ * previous run are deleted when the memo is created.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+public class ResultMemo {
+    private static final int MAX_ENTRIES = 256;
+    private static final String SPOOL_DIRECTORY = "results"; // Within the state directory
+    private static final String SPOOL_PREFIX = "ms-mon-result-";
+    private static final Map<String, Integer> DEFAULT_FRESHNESS; // Seconds, by Job Class Simple Name
+
+    static {
+        Map<String, Integer> freshness = new HashMap<>();
+        freshness.put("SyncRecorderStatus", 15);
+        freshness.put("SyncFleetStatus", 15);
+        freshness.put("SyncRecorderDB", 60);
+        DEFAULT_FRESHNESS = Collections.unmodifiableMap(freshness);
+    }
+
+    private static ResultMemo instance;
+    private static Gson gson = new Gson();
+
+    private final File spoolDirectory;
+    private final Map<String, Entry> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile Map<String, Integer> freshness = DEFAULT_FRESHNESS;
+
+    private ResultMemo(File spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+        entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResultMemo.Entry> eldest) {
+                if (size() <= MAX_ENTRIES) return false;
+                eldest.getValue().discard();
+                return true;
+            }
+        };
+    }
+
+    public static synchronized ResultMemo getInstance() {
+        if (instance == null) {
+            instance = new ResultMemo(new File(Agent.getStateDirectory(), SPOOL_DIRECTORY));
+            instance.sweep();
+        }
+        return instance;
+    }
+
+    /**
+     * Delete spool files left behind by a previous run, which nothing can read anymore
+     */
+    private void sweep() {
+        File[] files = spoolDirectory.listFiles((dir, name) -> name.startsWith(SPOOL_PREFIX));
+        if (files == null) return;
+
+        for (File file : files) {
+            log.debug("Deleting stale spool file " + file);
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    /**
+     * Change how long results are reused for
+     *
+     * @param freshness {@link Map} Seconds each job type's results are reused for, by Job Class Simple Name. Job types
+     *                  that are not listed keep their default; 0 disables memoization for the type.
+     */
+    public void setFreshness(final Map<String, Integer> freshness) {
+        Map<String, Integer> merged = new HashMap<>(DEFAULT_FRESHNESS);
+        if (freshness != null) merged.putAll(freshness);
+        this.freshness = Collections.unmodifiableMap(merged);
+    }
+
+    /**
+     * @param job {@link Class} Job Class
+     * @return If results of this job type are memoized
+     */
+    public boolean isMemoized(final Class<?> job) {
+        return getFreshness(job) > 0;
+    }
+
+    /**
+     * Find a fresh result for the job
+     *
+     * @param job     {@link Class} Job Class
+     * @param payload {@link Map} Job Payload
+     * @return {@link Map} Copy of the memoized result, or null if there is no fresh result
+     */
+    public Map<String, String> getResult(final Class<?> job, final Map<String, String> payload) {
+        Entry entry = lookup(job, payload);
+        return entry != null && entry.result != null ? new HashMap<>(entry.result) : null;
+    }
+
+    /**
+     * Find a fresh result for the streaming job
+     *
+     * @param job     {@link Class} Job Class
+     * @param payload {@link Map} Job Payload
+     * @return {@link SpooledResult} Spooled result body, which must be closed once it has been read, or null if there
+     * is no fresh result
+     */
+    public SpooledResult getSpooledResult(final Class<?> job, final Map<String, String> payload) {
+        Entry entry = lookup(job, payload);
+        return entry != null && entry.file != null ? entry.acquire() : null;
+    }
+
+    /**
+     * Remember a job's result
+     *
+     * @param job     {@link Class} Job Class
+     * @param payload {@link Map} Job Payload, as it was before the job ran
+     * @param result  {@link Map} Job Result
+     */
+    public void putResult(final Class<?> job, final Map<String, String> payload, final Map<String, String> result) {
+        if (!isMemoized(job) || result == null) return;
+        store(job, payload, new Entry(expiry(job), new HashMap<>(result), null));
+    }
+
+    /**
+     * Run a streaming job into a spool file, and remember it
+     *
+     * @param job     {@link Class} Job Class
+     * @param payload {@link Map} Job Payload, as it was before the job ran
+     * @param body    {@link HttpEntity} Streamed Result Body
+     * @return {@link SpooledResult} Spooled result body, which must be closed once it has been read
+     * @throws IOException Result could not be spooled
+     */
+    public SpooledResult spool(final Class<?> job, final Map<String, String> payload, final HttpEntity body)
+            throws IOException {
+        File file = createSpoolFile();
+        try (OutputStream out = new FileOutputStream(file)) {
+            body.writeTo(out);
+        } catch (IOException | RuntimeException e) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+            throw e;
+        }
+
+        final Entry entry = new Entry(expiry(job), null, file);
+        final SpooledResult spooled = entry.acquire();
+        if (Deadline.isExpired()) {
+            // The job ran out of time, so its result is incomplete - delete it once it has been sent
+            entry.discard();
+        } else store(job, payload, entry);
+        return spooled;
+    }
+
+    /**
+     * Create an empty spool file, which only the agent's user can read
+     *
+     * @return {@link File} Spool File
+     * @throws IOException Spool file could not be created
+     */
+    private File createSpoolFile() throws IOException {
+        final Path directory = spoolDirectory.toPath();
+        try {
+            Files.createDirectories(directory,
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            return Files.createTempFile(directory, SPOOL_PREFIX, ".json",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"))).toFile();
+        } catch (UnsupportedOperationException e) {
+            log.warn("Could not restrict permissions on spooled job result - it may be readable by other users");
+            Files.createDirectories(directory);
+            return Files.createTempFile(directory, SPOOL_PREFIX, ".json").toFile();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry lookup(final Class<?> job, final Map<String, String> payload) {
+        if (!isMemoized(job)) return null;
+
+        final String key = key(job, payload);
+        final Entry entry;
+        synchronized (this) {
+            Entry found = entries.get(key);
+            if (found != null && found.expires <= System.currentTimeMillis()) {
+                entries.remove(key);
+                found.discard();
+                found = null;
+            }
+            entry = found;
+        }
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        log.info(String.format("Reusing result of %s from the last %d seconds (%d hits, %d misses)",
+                job.getSimpleName(), getFreshness(job), hits.incrementAndGet(), misses.get()));
+        return entry;
+    }
+
+    private synchronized void store(final Class<?> job, final Map<String, String> payload, final Entry entry) {
+        Entry previous = entries.put(key(job, payload), entry);
+        if (previous != null) previous.discard();
+    }
+
+    private int getFreshness(final Class<?> job) {
+        Integer seconds = freshness.get(job.getSimpleName());
+        return seconds != null ? seconds : 0;
+    }
+
+    private long expiry(final Class<?> job) {
+        return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getFreshness(job));
+    }
+
+    private static String key(final Class<?> job, final Map<String, String> payload) {
+        // Sort the payload, so the same entries in a different order match
+        return job.getName() + gson.toJson(payload != null ? new TreeMap<>(payload) : null);
+    }
+
+    /**
+     * A spooled result body that is being read. The file is kept until it is closed, even if the result expires or is
+     * replaced in the meantime.
+     */
+    public static class SpooledResult implements Closeable {
+        private final Entry entry;
+        private boolean closed = false;
+
+        private SpooledResult(Entry entry) {
+            this.entry = entry;
+        }
+
+        public File getFile() {
+            return entry.file;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (closed) return;
+            closed = true;
+            entry.release();
+        }
+    }
+
+    private static class Entry {
+        private final long expires;
+        private final Map<String, String> result;
+        private final File file;
+        private int readers = 0;
+        private boolean discarded = false;
+
+        private Entry(long expires, Map<String, String> result, File file) {
+            this.expires = expires;
+            this.result = result;
+            this.file = file;
+        }
+
+        /**
+         * @return {@link SpooledResult} Reader for the spool file, or null if the entry has already been discarded
+         */
+        private synchronized SpooledResult acquire() {
+            if (discarded) return null;
+            readers++;
+            return new SpooledResult(this);
+        }
+
+        private synchronized void release() {
+            readers--;
+            if (discarded && readers == 0) delete();
+        }
+
+        private synchronized void discard() {
+            discarded = true;
+            if (readers == 0) delete();
+        }
+
+        private void delete() {
+            //noinspection ResultOfMethodCallIgnored
+            if (file != null) file.delete();
+        }
+    }
+}
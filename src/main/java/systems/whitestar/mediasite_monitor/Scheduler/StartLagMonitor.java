@@ -0,0 +1,246 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import lombok.extern.log4j.Log4j;
+import org.quartz.*;
+import systems.whitestar.mediasite_monitor.Http.Deadline;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderDirectory;
+import systems.whitestar.mediasite_monitor.Monitor.RecordingCalendar;
+import systems.whitestar.mediasite_monitor.Monitor.StartLagHistory;
+import systems.whitestar.mediasite_monitor.Monitor.StatusHistory;
+import systems.whitestar.mediasite_monitor.Monitor.UpcomingRecordings;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+/**
+ * Measures how late recorders start their scheduled recordings. Every hour the {@link RecordingCalendar} is checked for
+ * the recordings that start before the next check, and each gets a measurement window around its scheduled start. While a window is
+ * open its recorder is polled every few seconds, and the first time the recorder is seen to go from not recording to
+ * recording is stored in the {@link StartLagHistory}.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+@DisallowConcurrentExecution
+public class StartLagMonitor implements Job {
+    private static final String JOB_GROUP = "monitor";
+    private static final String TRIGGER_NAME = "StartLagMonitorTrigger";
+    private static final String JOB_NAME = "StartLagMonitor";
+    private static final int PLAN_INTERVAL = (int) TimeUnit.HOURS.toSeconds(1);
+    private static final int MIN_SAMPLE_DEADLINE = 2; // Seconds a round of samples may take
+
+    private static final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private static ScheduledExecutorService sampler;
+    private static ScheduledFuture<?> sampling;
+    private static volatile int sampleInterval;  // Seconds
+    private static volatile int windowBefore;    // Seconds
+    private static volatile int windowAfter;     // Seconds
+
+    /**
+     * Schedule the Start Lag Monitor
+     *
+     * @param scheduler      {@link Scheduler} Quartz Scheduler Instance
+     * @param sampleInterval How often, in seconds, recorders are polled while their window is open
+     * @param windowBefore   How long, in seconds, before a scheduled start the window opens
+     * @param windowAfter    How long, in seconds, after a scheduled start the window stays open
+     * @throws SchedulerException Something went wrong scheduling the job
+     */
+    public static synchronized void schedule(Scheduler scheduler, int sampleInterval, int windowBefore,
+                                             int windowAfter) throws SchedulerException {
+        if (sampler == null) {
+            sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "StartLag");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        reconfigure(sampleInterval, windowBefore, windowAfter);
+
+        JobDetail job = newJob(StartLagMonitor.class)
+                .withIdentity(JOB_NAME, JOB_GROUP)
+                .build();
+
+        // Trigger the job to run now, and then repeat every hour
+        Trigger trigger = newTrigger()
+                .withIdentity(TRIGGER_NAME, JOB_GROUP)
+                .withSchedule(simpleSchedule()
+                        .withIntervalInSeconds(PLAN_INTERVAL)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .startNow()
+                .build();
+
+        scheduler.scheduleJob(job, trigger);
+    }
+
+    /**
+     * Change the sampling settings of a running Start Lag Monitor. The sampler is rescheduled if the interval changed;
+     * windows that are already open carry on at the new interval. Does nothing if the monitor was not scheduled, or to
+     * disable it - that takes effect the next time the agent starts.
+     *
+     * @param sampleInterval How often, in seconds, recorders are polled while their window is open
+     * @param windowBefore   How long, in seconds, before a scheduled start the window opens
+     * @param windowAfter    How long, in seconds, after a scheduled start the window stays open
+     */
+    public static synchronized void reconfigure(int sampleInterval, int windowBefore, int windowAfter) {
+        if (sampler == null || sampleInterval <= 0) return;
+
+        StartLagMonitor.windowBefore = windowBefore;
+        StartLagMonitor.windowAfter = windowAfter;
+        if (sampling != null && sampleInterval == StartLagMonitor.sampleInterval) return;
+
+        // A round that is already running is allowed to finish
+        if (sampling != null) sampling.cancel(false);
+        StartLagMonitor.sampleInterval = sampleInterval;
+        sampling = sampler.scheduleAtFixedRate(StartLagMonitor::sample, sampleInterval, sampleInterval,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Plan the measurement windows for the recordings that start before the next run
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        final long now = System.currentTimeMillis();
+        final long until = now + TimeUnit.SECONDS.toMillis(PLAN_INTERVAL + windowBefore);
+
+        for (Mediasite mediasite : Mediasite.getInstances()) {
+            final String tenant = mediasite.getTenant();
+            RecordingCalendar calendar = RecordingCalendar.getInstance(tenant);
+            if (!calendar.refresh()) {
+                log.warn(String.format("Could not pull schedule for tenant \"%s\" - keeping planned start lag windows",
+                        tenant));
+                continue;
+            }
+
+            List<UpcomingRecordings.Recording> recordings = new ArrayList<>();
+            for (UpcomingRecordings.Recording recording : calendar.getRecordings()) {
+                if (recording.getStart() >= now && recording.getStart() <= until) recordings.add(recording);
+            }
+
+            Set<String> planned = new HashSet<>();
+            for (UpcomingRecordings.Recording recording : recordings) {
+                Window window = new Window(tenant, recording);
+                planned.add(window.key);
+                windows.putIfAbsent(window.key, window);
+            }
+
+            // Drop windows that have not opened yet for recordings that are no longer scheduled
+            windows.values().removeIf(window -> window.tenant.equals(tenant) && !planned.contains(window.key) &&
+                    window.opens() > now && window.recording.getStart() <= until);
+            log.debug(String.format("Planned start lag windows for %d recordings for tenant \"%s\"",
+                    recordings.size(), tenant));
+        }
+    }
+
+    /**
+     * Poll the recorders of every open window, and finish the windows whose recordings have started or that have
+     * closed
+     */
+    private static void sample() {
+        Deadline.set(Math.max(sampleInterval, MIN_SAMPLE_DEADLINE), TimeUnit.SECONDS);
+        try {
+            final long now = System.currentTimeMillis();
+            final Map<String, List<Window>> open = new HashMap<>();
+            for (Window window : windows.values()) {
+                if (window.opens() <= now) open.computeIfAbsent(window.tenant, t -> new ArrayList<>()).add(window);
+            }
+
+            for (Map.Entry<String, List<Window>> tenant : open.entrySet()) {
+                final Map<String, String> recorderIPs = RecorderDirectory.getInstance(tenant.getKey()).getRecorderIPs();
+                final Set<String> ips = new HashSet<>();
+                for (Window window : tenant.getValue()) {
+                    String ip = recorderIPs.get(window.recording.getRecorderId());
+                    if (ip != null) ips.add(ip);
+                }
+
+                final Map<String, Status> statuses = Mediasite.getInstance(tenant.getKey()).getRecorderStatuses(ips);
+                final long observed = System.currentTimeMillis();
+                for (Window window : tenant.getValue()) {
+                    final String recorderId = window.recording.getRecorderId();
+                    final Status status = statuses.get(recorderIPs.get(recorderId));
+                    StatusHistory.getInstance().record(tenant.getKey(), recorderId, status, observed);
+
+                    StartLagHistory.Measurement measurement = window.observe(status, observed);
+                    if (measurement == null) continue;
+
+                    windows.remove(window.key);
+                    if (measurement.getOutcome() != null) {
+                        StartLagHistory.getInstance().record(measurement);
+                        log.debug(String.format("Recorder %s start lag for Schedule %s: %s (%s ms)", recorderId,
+                                measurement.getScheduleId(), measurement.getOutcome(), measurement.getLag()));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep sampling - an exception would cancel the remaining runs
+            log.error("Problem sampling recorder status for start lag", e);
+        } finally {
+            Deadline.clear();
+        }
+    }
+
+    /**
+     * Measurement window around one recording's scheduled start
+     */
+    private static class Window {
+        final String tenant;
+        final String key;
+        final UpcomingRecordings.Recording recording;
+
+        int samples = 0;
+        Long lastNotRecording = null;
+
+        Window(String tenant, UpcomingRecordings.Recording recording) {
+            this.tenant = tenant;
+            this.recording = recording;
+            this.key = String.format("%s/%s/%d/%d", tenant, recording.getScheduleId(), recording.getRecurrenceId(),
+                    recording.getStart());
+        }
+
+        long opens() {
+            return recording.getStart() - TimeUnit.SECONDS.toMillis(windowBefore);
+        }
+
+        long closes() {
+            return recording.getStart() + TimeUnit.SECONDS.toMillis(windowAfter);
+        }
+
+        /**
+         * @param status {@link Status} Observed Status, or null if it could not be retrieved
+         * @param time   When the status was observed, in milliseconds since the epoch
+         * @return {@link StartLagHistory.Measurement} Measurement if the window is finished, or null if it is still open.
+         * The measurement has no outcome if the recorder could not be polled at all.
+         */
+        StartLagHistory.Measurement observe(final Status status, final long time) {
+            if (status == Status.RECORDING && lastNotRecording != null)
+                return measurement(time, time - lastNotRecording, StartLagHistory.Outcome.STARTED);
+
+            if (status != null) {
+                samples++;
+                if (status != Status.RECORDING) lastNotRecording = time;
+            }
+            if (time < closes()) return null;
+
+            if (samples == 0) return measurement(null, null, null);
+            return measurement(null, null, lastNotRecording == null ?
+                    StartLagHistory.Outcome.ALREADY_RECORDING : StartLagHistory.Outcome.MISSED);
+        }
+
+        private StartLagHistory.Measurement measurement(Long started, Long resolution, StartLagHistory.Outcome outcome) {
+            return new StartLagHistory.Measurement(tenant, recording.getRecorderId(), recording.getScheduleId(),
+                    recording.getRecurrenceId(), recording.getStart(), started, resolution, outcome);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import com.google.gson.Gson;
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import lombok.extern.log4j.Log4j;
+import org.quartz.*;
+import systems.whitestar.mediasite_monitor.Agent;
+import systems.whitestar.mediasite_monitor.Mediasite;
+import systems.whitestar.mediasite_monitor.Models.Status;
+import systems.whitestar.mediasite_monitor.Models.StatusChange;
+import systems.whitestar.mediasite_monitor.Monitor.PollingPlanner;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderDirectory;
+import systems.whitestar.mediasite_monitor.Monitor.RecorderOwnership;
+import systems.whitestar.mediasite_monitor.Monitor.StatusHistory;
+import systems.whitestar.mediasite_monitor.Monitor.StatusTracker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.quartz.JobBuilder.newJob;
+import static org.quartz.SimpleScheduleBuilder.simpleSchedule;
+import static org.quartz.TriggerBuilder.newTrigger;
+
+/**
+ * Continuously poll every known recorder, and report only the recorders whose status changed to the server. Changes
+ * are sent in one batch per sweep; if the server cannot be reached they are kept and sent with the next batch.
+ * <p>
+ * With a dense interval set, recorders are polled at the dense interval around the scheduled starts and stops of their
+ * recordings, and at the regular interval the rest of the time, as planned by the {@link PollingPlanner}.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+@Log4j
+@DisallowConcurrentExecution
+public class StatusMonitor implements Job {
+    private static final String JOB_GROUP = "monitor";
+    private static final String TRIGGER_NAME = "StatusMonitorTrigger";
+    private static final String JOB_NAME = "StatusMonitor";
+    private static final int MAX_PENDING_CHANGES = 10000; // Changes kept while the server is unreachable
+
+    private static final List<StatusChange> pendingChanges = new ArrayList<>();
+    private static final Map<String, Map<String, Long>> lastPolled = new ConcurrentHashMap<>(); // By Tenant & Recorder
+    private static volatile int sparseInterval;  // Seconds
+    private static volatile int denseInterval;   // Seconds, 0 if polling is not adaptive
+    private static volatile int denseWindow;     // Seconds
+
+    /**
+     * Schedule the Status Monitor
+     *
+     * @param scheduler         {@link Scheduler} Quartz Scheduler Instance
+     * @param intervalInSeconds How often the recorders should be polled in Seconds
+     * @param denseInterval     How often recorders should be polled around scheduled starts and stops in Seconds,
+     *                          0 to always poll at the regular interval
+     * @param denseWindow       How long before and after each scheduled start and stop to poll densely in Seconds
+     * @throws SchedulerException Something went wrong scheduling the job
+     */
+    public static void schedule(Scheduler scheduler, int intervalInSeconds, int denseInterval, int denseWindow)
+            throws SchedulerException {
+        StatusMonitor.sparseInterval = intervalInSeconds;
+        StatusMonitor.denseInterval = denseInterval > 0 && denseInterval < intervalInSeconds ? denseInterval : 0;
+        StatusMonitor.denseWindow = denseWindow;
+
+        JobDetail job = newJob(StatusMonitor.class)
+                .withIdentity(JOB_NAME, JOB_GROUP)
+                .build();
+
+        // Trigger the job to run now, and then repeat every X Seconds
+        Trigger trigger = newTrigger()
+                .withIdentity(TRIGGER_NAME, JOB_GROUP)
+                .withSchedule(simpleSchedule()
+                        .withIntervalInSeconds(StatusMonitor.denseInterval > 0 ?
+                                StatusMonitor.denseInterval : intervalInSeconds)
+                        .repeatForever()
+                        .withMisfireHandlingInstructionNextWithRemainingCount())
+                .startNow()
+                .build();
+
+        scheduler.scheduleJob(job, trigger);
+    }
+
+    /**
+     * Send a batch of status changes to the server
+     *
+     * @param changes {@link List} Status Changes
+     * @return If the server accepted the changes
+     */
+    private static boolean pushChanges(final List<StatusChange> changes) {
+        HttpResponse<String> response;
+
+        try {
+            response = Unirest
+                    .post(String.format("%s/agent/status", Agent.getAgent().getServerURL()))
+                    .header("Content-Type", "application/json")
+                    .body(new Gson().toJson(changes))
+                    .asString();
+        } catch (UnirestException e) {
+            log.warn("Could not push status changes to server - Check URL and config", e);
+            return false;
+        }
+
+        if (response.getStatus() == 202) {
+            log.info(String.format("%d status changes accepted", changes.size()));
+            return true;
+        }
+
+        log.warn("Status changes rejected - HTTP Code: " + response.getStatus());
+        log.debug(response.getBody());
+        return false;
+    }
+
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        for (Mediasite mediasite : Mediasite.getInstances()) {
+            Map<String, String> recorderIPs = RecorderOwnership.getInstance().filter(
+                    RecorderDirectory.getInstance(mediasite.getTenant()).getRecorderIPs());
+            if (denseInterval > 0) recorderIPs = due(mediasite.getTenant(), recorderIPs);
+            Map<String, Status> statusByIP = mediasite.getRecorderStatuses(recorderIPs.values());
+
+            Map<String, Status> statuses = new HashMap<>();
+            long now = System.currentTimeMillis();
+            Map<String, Long> polled = lastPolled(mediasite.getTenant());
+            for (Map.Entry<String, String> recorder : recorderIPs.entrySet()) {
+                if (denseInterval > 0) polled.put(recorder.getKey(), now);
+                Status status = statusByIP.get(recorder.getValue());
+                statuses.put(recorder.getKey(), status);
+                StatusHistory.getInstance().record(mediasite.getTenant(), recorder.getKey(), status, now);
+            }
+
+            List<StatusChange> changes = StatusTracker.getInstance().update(mediasite.getTenant(), statuses);
+            log.debug(String.format("Status Monitor polled %d recorders for tenant \"%s\" - %d changes",
+                    statuses.size(), mediasite.getTenant(), changes.size()));
+            pendingChanges.addAll(changes);
+        }
+
+        if (pendingChanges.size() > MAX_PENDING_CHANGES) {
+            log.warn("Too many unsent status changes - dropping the oldest");
+            pendingChanges.subList(0, pendingChanges.size() - MAX_PENDING_CHANGES).clear();
+        }
+
+        if (!pendingChanges.isEmpty() && pushChanges(pendingChanges)) pendingChanges.clear();
+    }
+
+    /**
+     * @param tenant      {@link String} Tenant Name
+     * @param recorderIPs {@link Map} Recorder IPs by Recorder ID
+     * @return {@link Map} Recorder IPs by Recorder ID, of the recorders that are due to be polled
+     */
+    private static Map<String, String> due(final String tenant, final Map<String, String> recorderIPs) {
+        final Set<String> due = PollingPlanner.getInstance(tenant).due(lastPolled(tenant), recorderIPs.keySet(),
+                System.currentTimeMillis(), denseInterval, sparseInterval, denseWindow);
+
+        Map<String, String> dueIPs = new HashMap<>();
+        for (Map.Entry<String, String> recorder : recorderIPs.entrySet()) {
+            if (due.contains(recorder.getKey())) dueIPs.put(recorder.getKey(), recorder.getValue());
+        }
+        return dueIPs;
+    }
+
+    /**
+     * @param tenant {@link String} Tenant Name
+     * @return {@link Map} When each of the tenant's recorders was last polled, by Recorder ID
+     */
+    private static Map<String, Long> lastPolled(final String tenant) {
+        return lastPolled.computeIfAbsent(tenant, t -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,134 @@
+package systems.whitestar.mediasite_monitor.Scheduler;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import systems.whitestar.mediasite_monitor.Http.Deadline;
+import systems.whitestar.mediasite_monitor.Jobs.StreamingJobInterface;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Chunked request body that runs a {@link StreamingJobInterface} job as it is sent. The body is the same JSON object of
+ * String values that a regular job result is sent as, but the streamed field's JSON is written (and escaped into a
+ * String value) as the job produces it, so the result is never held in memory.
+ *
+ * @author Tom Paulus
+ * Created on 10/19/26.
+ */
+class StreamingResultEntity extends AbstractHttpEntity {
+    private static Gson gson = new Gson();
+
+    private final StreamingJobInterface job;
+    private final Map<String, String> payload;
+    private final AtomicBoolean written = new AtomicBoolean(false);
+
+    StreamingResultEntity(StreamingJobInterface job, Map<String, String> payload) {
+        this.job = job;
+        this.payload = payload != null ? payload : new HashMap<>();
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() {
+        throw new UnsupportedOperationException("Streaming results can only be written");
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        // Writing the body runs the job, so it must only happen once
+        if (!written.compareAndSet(false, true)) throw new IOException("Streaming result has already been written");
+
+        final String field = job.getStreamedField();
+        final Writer out = new BufferedWriter(new OutputStreamWriter(outStream, StandardCharsets.UTF_8));
+
+        out.write('{');
+        out.write(gson.toJson(field));
+        out.write(":\"");
+
+        JsonWriter writer = new JsonWriter(new JsonStringWriter(out));
+        job.stream(payload, writer);
+        writer.flush();
+        if (Deadline.isExpired()) payload.put(JobRunner.TIMEOUT_KEY, Boolean.toString(true));
+
+        out.write('"');
+        for (Map.Entry<String, String> entry : payload.entrySet()) {
+            if (entry.getKey().equals(field)) continue;
+            out.write(',');
+            out.write(gson.toJson(entry.getKey()));
+            out.write(':');
+            out.write(gson.toJson(entry.getValue()));
+        }
+        out.write('}');
+        out.flush();
+    }
+
+    /**
+     * Escapes everything written through it so it can be embedded in a JSON String value
+     */
+    private static class JsonStringWriter extends Writer {
+        private final Writer out;
+
+        JsonStringWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            for (int i = offset; i < offset + length; i++) {
+                char c = buffer[i];
+                switch (c) {
+                    case '"':
+                        out.write("\\\"");
+                        break;
+                    case '\\':
+                        out.write("\\\\");
+                        break;
+                    case '\n':
+                        out.write("\\n");
+                        break;
+                    case '\r':
+                        out.write("\\r");
+                        break;
+                    case '\t':
+                        out.write("\\t");
+                        break;
+                    default:
+                        if (c < 0x20 || c == '\u2028' || c == '\u2029') out.write(String.format("\\u%04x", (int) c));
+                        else out.write(c);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}